@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# 플랫폼 스레드(Tomcat 200) vs 가상 스레드 처리량 / p99 비교
+#
+# 필요: MySQL (application.yml 의 campus DB, 게시글 데이터가 있어야 의미 있음), hey (https://github.com/rakyll/hey)
+# 사용: bench/virtual-threads.sh            (기본 30초, 동시 500)
+#       DURATION=60s CONCURRENCY=1000 bench/virtual-threads.sh
+#       JAR=other.jar bench/virtual-threads.sh  (이미 만든 jar 로, 예: 드라이버 버전 비교)
+#
+# virtual=true 실행은 VirtualThreadPinningMonitor 를 threshold 0 으로 켜서
+# 부하 중 가상 스레드가 캐리어에 고정된 횟수(jvm.threads.virtual.pinned)도 출력
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+mkdir -p build
+
+DURATION="${DURATION:-30s}"
+CONCURRENCY="${CONCURRENCY:-500}"
+PORT="${PORT:-18080}"
+# actuator 메트릭은 관리 포트에서만 조회 가능
+MANAGEMENT_PORT="${MANAGEMENT_PORT:-19090}"
+PATHS=("/posts?size=20" "/posts/1" "/community/posts?size=20")
+
+command -v hey >/dev/null || { echo "hey 가 필요합니다: go install github.com/rakyll/hey@latest" >&2; exit 1; }
+
+if [[ -z "${JAR:-}" ]]; then
+  bash ./gradlew -q bootJar
+  JAR="$(ls build/libs/*.jar | grep -v plain | head -n 1)"
+fi
+
+run() {
+  local virtual="$1"
+  java -jar "$JAR" --server.port="$PORT" --management.server.port="$MANAGEMENT_PORT" \
+       --spring.threads.virtual.enabled="$virtual" \
+       --virtual-threads.pinned-threshold-ms=0 \
+       --spring.jpa.show-sql=false >"build/bench-virtual-$virtual.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+
+  until curl -sf "http://localhost:$PORT/healthz" >/dev/null; do
+    kill -0 "$pid" 2>/dev/null || { echo "기동 실패: build/bench-virtual-$virtual.log" >&2; exit 1; }
+    sleep 1
+  done
+
+  for path in "${PATHS[@]}"; do
+    # 워밍업 (JIT, 커넥션 풀, 캐시)
+    hey -z 5s -c "$CONCURRENCY" "http://localhost:$PORT$path" >/dev/null
+    local out rps p99
+    out="$(hey -z "$DURATION" -c "$CONCURRENCY" "http://localhost:$PORT$path")"
+    rps="$(awk '/Requests\/sec/ {print $2}' <<<"$out")"
+    p99="$(awk '/99% in/ {print $3 * 1000}' <<<"$out")"
+    printf '%-8s %-28s %12s %12s\n' "$virtual" "$path" "$rps" "$p99"
+  done
+
+  if [[ "$virtual" == true ]]; then
+    local pinned
+    pinned="$(curl -s "http://localhost:$MANAGEMENT_PORT/actuator/metrics/jvm.threads.virtual.pinned" \
+      | grep -o '"value":[0-9.E]*' | head -n 1 | cut -d: -f2)"
+    echo "pinned carrier events during run: ${pinned:-?} (stacks in build/bench-virtual-true.log)"
+  fi
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+printf '%-8s %-28s %12s %12s\n' "virtual" "path" "req/s" "p99(ms)"
+run false
+run true
@@ -1,12 +1,16 @@
 plugins {
     id("org.springframework.boot") version "3.3.3"
     id("io.spring.dependency-management") version "1.1.5"
+    id("me.champeau.jmh") version "0.7.3"
     java
 }
 
 group = "campus"   // 패키지 안 써도 이 값은 그냥 프로젝트 식별자라 상관없음
 version = "0.0.1"
-java.sourceCompatibility = JavaVersion.VERSION_17
+java {
+    // 가상 스레드 (spring.threads.virtual.enabled) 때문에 21
+    toolchain { languageVersion.set(JavaLanguageVersion.of(21)) }
+}
 
 repositories { mavenCentral() }
 
@@ -14,12 +18,65 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.security:spring-security-crypto")
-    runtimeOnly("com.mysql:mysql-connector-j:8.4.0")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    // 9.x 부터 드라이버 내부 잠금이 synchronized → ReentrantLock (8.x 는 쿼리 대기 중 가상 스레드가 캐리어에 고정됨)
+    runtimeOnly("com.mysql:mysql-connector-j:9.4.0")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+    // Gradle 9 는 JUnit Platform launcher 를 직접 넣어야 테스트가 실행됨
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 
 
 tasks.withType<Test> { useJUnitPlatform() }
+
+// 마이크로벤치마크 (src/jmh): gradle jmh → build/results/jmh/results.json
+// 일부만: gradle jmh -PjmhIncludes=CommunitySort
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("1s")
+    iterations.set(5)
+    timeOnIteration.set("1s")
+    findProperty("jmhIncludes")?.let { includes.set(listOf(it.toString())) }
+}
+
+// 가상 스레드가 synchronized 안에서 I/O 로 막히면 캐리어 스레드까지 묶이므로(pinning) 소스에서 금지.
+// 잠금이 필요하면 java.util.concurrent.locks.ReentrantLock 사용.
+// 모든 요청이 거치는 JDBC 드라이버도 같은 문제라 mysql-connector-j 는 9.x 이상만 허용
+val checkNoSynchronized by tasks.registering {
+    val sources = fileTree("src/main/java") { include("**/*.java") }
+    inputs.files(sources)
+    val jdbcDriverVersion = configurations.runtimeClasspath.map { cp ->
+        cp.incoming.resolutionResult.allComponents
+            .mapNotNull { it.moduleVersion }
+            .firstOrNull { it.group == "com.mysql" && it.name == "mysql-connector-j" }
+            ?.version ?: ""
+    }
+    doLast {
+        val driver = jdbcDriverVersion.get()
+        if (driver.isNotEmpty() && (driver.substringBefore('.').toIntOrNull() ?: 0) < 9) {
+            throw GradleException("mysql-connector-j $driver runs queries inside synchronized " +
+                    "(pins virtual threads), use 9.x or newer")
+        }
+        val keyword = Regex("""\bsynchronized\b""")
+        val offenders = sources.files.flatMap { file ->
+            file.readLines().mapIndexedNotNull { i, line ->
+                val code = line.substringBefore("//").trim()
+                val comment = code.startsWith("*") || code.startsWith("/*")
+                if (!comment && keyword.containsMatchIn(code)) "${file.relativeTo(projectDir)}:${i + 1}" else null
+            }
+        }
+        if (offenders.isNotEmpty()) {
+            throw GradleException("synchronized pins virtual threads, use ReentrantLock instead:\n" +
+                    offenders.joinToString("\n"))
+        }
+    }
+}
+tasks.named("check") { dependsOn(checkNoSynchronized) }
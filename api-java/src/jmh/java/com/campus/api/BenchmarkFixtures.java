@@ -0,0 +1,108 @@
+package com.campus.api;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 벤치마크용 엔티티/DTO 만들기 (DB 없이 메모리에서)
+ * id 는 DB 가 채우는 값이라 setter 가 없어서 리플렉션으로 넣는다.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    // 업로드 URL 형식 그대로 (내용 해시 64자리 + 확장자) → variantUrl 이 ?w= 를 붙이는 경로를 탐
+    static String imageUrl(Random random) {
+        StringBuilder sb = new StringBuilder("http://localhost:8080/files/");
+        for (int i = 0; i < 64; i++) {
+            sb.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return sb.append(".jpg").toString();
+    }
+
+    static User user(long id) {
+        User u = new User("user" + id + "@kyonggi.ac.kr", "password", "닉네임" + id);
+        setId(u, id);
+        return u;
+    }
+
+    static AuthorSummary author(User u, Random random) {
+        return new AuthorSummary(u.getId(), u.getNickname(), imageUrl(random));
+    }
+
+    static CommunityPost communityPost(long id, User author, int images, Random random) {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < images; i++) {
+            urls.add(imageUrl(random));
+        }
+        CommunityPost p = new CommunityPost(author, "제목 " + id, "커뮤니티 글 내용입니다. ".repeat(10), urls);
+        setId(p, id);
+        p.onCreate();
+        p.setLikeCount(random.nextInt(100));
+        p.setCommentCount(random.nextInt(30));
+        return p;
+    }
+
+    static List<CommunityPost> communityPosts(int count, int authors, int images, long seed) {
+        Random random = new Random(seed);
+        List<User> users = users(authors);
+        List<CommunityPost> posts = new ArrayList<>(count);
+        Instant base = Instant.parse("2026-03-02T00:00:00Z");
+        for (int i = 0; i < count; i++) {
+            CommunityPost p = communityPost(i + 1, users.get(i % authors), images, random);
+            // 작성 시각이 모두 같으면 정렬 비교가 비정상적으로 싸지므로 흩뿌림
+            setField(p, "createdAt", base.plusSeconds(random.nextInt(86_400 * 30)));
+            posts.add(p);
+        }
+        return posts;
+    }
+
+    static Map<Long, AuthorSummary> authors(int count, long seed) {
+        Random random = new Random(seed);
+        Map<Long, AuthorSummary> map = new HashMap<>();
+        for (User u : users(count)) {
+            map.put(u.getId(), author(u, random));
+        }
+        return map;
+    }
+
+    static List<Post> posts(int count, long seed) {
+        Random random = new Random(seed);
+        List<Post> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Post p = new Post((long) (i % 50) + 1, "제목 " + i, "중고 거래 글 내용입니다. ".repeat(10), imageUrl(random));
+            setId(p, i + 1);
+            p.onCreate();
+            posts.add(p);
+        }
+        return posts;
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(user(i + 1));
+        }
+        return users;
+    }
+
+    private static void setId(Object entity, long id) {
+        setField(entity, "id", id);
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(name);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.campus.api;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CommunityPost.getImageUrls / getThumbnailUrl
+ * 호출할 때마다 image_urls 문자열을 split 하고 ArrayList 로 복사함 (목록은 행마다 getThumbnailUrl 호출)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CommunityPostImageUrlsBenchmark {
+
+    // 글 하나에 붙은 이미지 수
+    @Param({"0", "1", "5"})
+    public int images;
+
+    private CommunityPost post;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        post = BenchmarkFixtures.communityPost(1, BenchmarkFixtures.user(1), images, random);
+    }
+
+    @Benchmark
+    public List<String> imageUrls() {
+        return post.getImageUrls();
+    }
+
+    @Benchmark
+    public String thumbnailUrl() {
+        return post.getThumbnailUrl();
+    }
+
+    // 목록 응답의 thumbnailUrl (축소본 URL 로 변환까지)
+    @Benchmark
+    public String listThumbnailUrl() {
+        return UploadStorage.variantUrl(post.getThumbnailUrl(), PostController.LIST_THUMBNAIL_WIDTH);
+    }
+}
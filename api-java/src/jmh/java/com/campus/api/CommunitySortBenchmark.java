@@ -0,0 +1,53 @@
+package com.campus.api;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * GET /community/posts 의 예전 방식: 전체 글을 읽어 Comparator 로 정렬 후 skip/limit.
+ * 지금은 DB 인덱스(idx_community_posts_like_created 등)로 정렬/페이징하므로,
+ * 메모리 정렬로 되돌아가면 글 수에 따라 얼마나 비싸지는지 비교하는 기준값.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommunitySortBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final Comparator<CommunityPost> LATEST =
+            Comparator.comparing(CommunityPost::getCreatedAt).reversed();
+    private static final Comparator<CommunityPost> POPULAR = Comparator
+            .comparingInt(CommunityPost::getLikeCount)
+            .thenComparing(CommunityPost::getCreatedAt)
+            .reversed();
+
+    // 전체 글 수
+    @Param({"100", "1000", "10000"})
+    public int posts;
+
+    @Param({"latest", "popular"})
+    public String sort;
+
+    private List<CommunityPost> all;
+    private Comparator<CommunityPost> comparator;
+
+    @Setup
+    public void setUp() {
+        all = BenchmarkFixtures.communityPosts(posts, 50, 1, 42);
+        comparator = "popular".equals(sort) ? POPULAR : LATEST;
+    }
+
+    // 첫 페이지 (page=0)
+    @Benchmark
+    public List<CommunityPost> firstPage() {
+        return all.stream()
+                .sorted(comparator)
+                .limit(PAGE_SIZE)
+                .collect(Collectors.toList());
+    }
+}
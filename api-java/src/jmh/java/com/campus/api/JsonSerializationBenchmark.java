@@ -0,0 +1,79 @@
+package com.campus.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 페이지 응답 DTO 의 Jackson 직렬화 (응답 본문 바이트까지)
+ * ObjectMapper 는 Spring Boot 와 같은 기본값 (Jackson2ObjectMapperBuilder: 날짜는 ISO 문자열, JavaTimeModule)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int rows;
+
+    private ObjectMapper mapper;
+    private List<CommunityController.ListResponse> communityPage;
+    private CommunityController.DetailResponse communityDetail;
+    private PostController.PostPageResponse postPage;
+
+    @Setup
+    public void setUp() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<CommunityPost> posts = BenchmarkFixtures.communityPosts(rows, 50, 3, 42);
+        Map<Long, AuthorSummary> authors = BenchmarkFixtures.authors(50, 42);
+        communityPage = new ArrayList<>();
+        for (CommunityPost p : posts) {
+            communityPage.add(CommunityController.ListResponse.from(p, authors.get(p.getAuthor().getId())));
+        }
+
+        List<CommunityController.CommentDto> comments = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            CommunityController.CommentDto c = new CommunityController.CommentDto();
+            c.id = (long) i + 1;
+            c.authorId = (long) i + 1;
+            c.authorNickname = "닉네임" + c.authorId;
+            c.content = "댓글 " + i;
+            c.createdAt = LocalDateTime.of(2026, 3, 2, 12, 0).plusMinutes(i);
+            comments.add(c);
+        }
+        CommunityPost first = posts.get(0);
+        communityDetail = CommunityController.DetailResponse.from(first, authors.get(first.getAuthor().getId()), comments);
+
+        postPage = new PostController.PostPageResponse();
+        postPage.content = new ArrayList<>();
+        for (Post p : BenchmarkFixtures.posts(rows, 42)) {
+            postPage.content.add(PostController.ListResponse.from(p));
+        }
+        postPage.size = rows;
+        postPage.hasNext = true;
+        postPage.nextCursor = "MjAyNi0wMy0wMlQwMDowMDowMFp8MTIz";
+    }
+
+    @Benchmark
+    public byte[] communityListPage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(communityPage);
+    }
+
+    @Benchmark
+    public byte[] communityDetail() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(communityDetail);
+    }
+
+    @Benchmark
+    public byte[] postPage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(postPage);
+    }
+}
@@ -0,0 +1,74 @@
+package com.campus.api;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티 → 응답 DTO 변환 (한 페이지 단위)
+ * - GET /community/posts      : CommunityController.ListResponse.from
+ * - GET /community/posts/{id} : CommunityController.DetailResponse.from
+ * - GET /posts                : PostController.ListResponse.from
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseMappingBenchmark {
+
+    // 한 페이지 행 수 (기본 20, 최대 100)
+    @Param({"20", "100"})
+    public int rows;
+
+    private static final int AUTHORS = 50;
+
+    private List<CommunityPost> communityPosts;
+    private Map<Long, AuthorSummary> authors;
+    private List<CommunityController.CommentDto> comments;
+    private List<Post> posts;
+
+    @Setup
+    public void setUp() {
+        communityPosts = BenchmarkFixtures.communityPosts(rows, AUTHORS, 3, 42);
+        authors = BenchmarkFixtures.authors(AUTHORS, 42);
+        posts = BenchmarkFixtures.posts(rows, 42);
+
+        comments = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            CommunityController.CommentDto c = new CommunityController.CommentDto();
+            c.id = (long) i + 1;
+            c.authorId = (long) i % AUTHORS + 1;
+            c.authorNickname = "닉네임" + c.authorId;
+            c.content = "댓글 " + i;
+            c.createdAt = LocalDateTime.of(2026, 3, 2, 12, 0).plusMinutes(i);
+            comments.add(c);
+        }
+    }
+
+    @Benchmark
+    public List<CommunityController.ListResponse> communityListPage() {
+        List<CommunityController.ListResponse> result = new ArrayList<>(communityPosts.size());
+        for (CommunityPost p : communityPosts) {
+            result.add(CommunityController.ListResponse.from(p, authors.get(p.getAuthor().getId())));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public CommunityController.DetailResponse communityDetail() {
+        CommunityPost p = communityPosts.get(0);
+        return CommunityController.DetailResponse.from(p, authors.get(p.getAuthor().getId()), comments);
+    }
+
+    @Benchmark
+    public List<PostController.ListResponse> postListPage() {
+        List<PostController.ListResponse> result = new ArrayList<>(posts.size());
+        for (Post p : posts) {
+            result.add(PostController.ListResponse.from(p));
+        }
+        return result;
+    }
+}
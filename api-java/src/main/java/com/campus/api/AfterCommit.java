@@ -0,0 +1,28 @@
+package com.campus.api;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션 커밋 뒤에 할 일 (캐시 무효화, 메모리 카운터 반영, 백그라운드 작업 예약 등)
+ *
+ * 트랜잭션 안이면 커밋된 뒤에만 실행하고(롤백되면 실행 안 함), 트랜잭션 밖이면 바로 실행한다.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
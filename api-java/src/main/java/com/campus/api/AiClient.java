@@ -0,0 +1,273 @@
+package com.campus.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * AI 서버(musinsa/app.py) 호출: /recommend(원격 검색), /embed(이미지 임베딩)
+ *
+ * AI 서버는 이미지를 내려받아 CLIP 을 돌리므로 느리거나 멈출 수 있다. 그래도 Tomcat 스레드가 묶이지 않도록
+ * - 연결은 JDK HttpClient 풀에서 keep-alive 로 재사용하고 연결/응답 타임아웃을 짧게 둔다
+ * - 동시 호출 수를 세마포어로 제한하고, 한도를 넘으면 기다리지 않고 바로 실패 처리한다
+ * - 연속 실패(5xx, 연결 실패, 타임아웃)가 쌓이면 회로를 열어 open-duration 동안 호출하지 않고,
+ *   그 뒤 한 번만 시험 호출해서 성공하면 닫는다. 4xx 는 요청 쪽 문제라 실패로 세지 않는다
+ * 호출할 수 없으면 null 을 반환하고, 대체 결과(최신 게시글)는 호출하는 쪽에서 만든다.
+ */
+@Component
+public class AiClient {
+
+    private static final Logger log = LoggerFactory.getLogger(AiClient.class);
+
+    private enum Circuit { CLOSED, OPEN, HALF_OPEN }
+
+    private final MeterRegistry meters;
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    private final Semaphore bulkhead;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private final AtomicReference<Circuit> circuit = new AtomicReference<>(Circuit.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;      // 회로가 닫힘 → 열림으로 바뀐 시각 (nanoTime)
+    private volatile long retryAt;       // 다음 시험 호출 가능 시각 (nanoTime)
+    private final AtomicLong closedOpenNanos = new AtomicLong(); // 지난 열림 구간 합
+
+    private final Counter rejectedOpen;
+    private final Counter rejectedBulkhead;
+
+    public AiClient(
+            MeterRegistry meters,
+            @Value("${ai.server.url:http://localhost:8000}") String aiServerUrl,
+            @Value("${ai.client.connect-timeout-ms:1000}") long connectTimeoutMs,
+            @Value("${ai.client.read-timeout-ms:3000}") long readTimeoutMs,
+            @Value("${ai.client.max-concurrent-calls:8}") int maxConcurrentCalls,
+            @Value("${ai.client.failure-threshold:5}") int failureThreshold,
+            @Value("${ai.client.open-duration-ms:30000}") long openDurationMs
+    ) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        this.meters = meters;
+        this.restTemplate = new RestTemplate(factory);
+        this.baseUrl = aiServerUrl;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+
+        this.rejectedOpen = Counter.builder("ai.client.rejected")
+                .description("AI 서버를 호출하지 않고 대체 결과를 준 횟수")
+                .tag("reason", "circuit_open")
+                .register(meters);
+        this.rejectedBulkhead = Counter.builder("ai.client.rejected")
+                .description("AI 서버를 호출하지 않고 대체 결과를 준 횟수")
+                .tag("reason", "bulkhead_full")
+                .register(meters);
+        Gauge.builder("ai.client.circuit.state", circuit, c -> c.get().ordinal())
+                .description("0=closed, 1=open, 2=half-open")
+                .register(meters);
+        Gauge.builder("ai.client.in.flight", bulkhead, b -> maxConcurrentCalls - b.availablePermits())
+                .description("진행 중인 AI 서버 호출 수")
+                .register(meters);
+        FunctionCounter.builder("ai.client.circuit.open.time", this, AiClient::openSeconds)
+                .description("회로가 열려 있던 누적 시간")
+                .baseUnit("seconds")
+                .register(meters);
+    }
+
+    /**
+     * 비슷한 게시글 id 목록 (AI 서버가 준 순서 그대로).
+     * 회로가 열려 있거나, 동시 호출 한도를 넘었거나, 타임아웃/오류면 null
+     */
+    public List<Long> recommend(String imageUrl, int topN) {
+        RecommendRequest body = new RecommendRequest();
+        body.imageUrl = imageUrl;
+        body.topN = topN;
+        try {
+            RecommendResponse resp = post("recommend", body, RecommendResponse.class);
+            return resp == null || resp.similarIds == null ? List.of() : resp.similarIds;
+        } catch (Unavailable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 이미지 임베딩 벡터 (SimilarPostIndex 용). 호출할 수 없거나 응답에 벡터가 없으면 null
+     */
+    public float[] embed(String imageUrl) {
+        EmbedRequest body = new EmbedRequest();
+        body.imageUrl = imageUrl;
+        try {
+            EmbedResponse resp = post("embed", body, EmbedResponse.class);
+            return resp == null ? null : resp.vector;
+        } catch (Unavailable e) {
+            return null;
+        }
+    }
+
+    // 회로/동시 호출 한도 확인 후 POST {baseUrl}/{operation}. 호출하지 못했거나 실패하면 Unavailable
+    private <T> T post(String operation, Object body, Class<T> responseType) {
+        if (!allowCall()) {
+            rejectedOpen.increment();
+            throw Unavailable.INSTANCE;
+        }
+        if (!bulkhead.tryAcquire()) {
+            rejectedBulkhead.increment();
+            // 시험 호출 자격을 얻었는데 못 썼으면 다음 요청이 시험할 수 있게 되돌림
+            circuit.compareAndSet(Circuit.HALF_OPEN, Circuit.OPEN);
+            throw Unavailable.INSTANCE;
+        }
+        // HALF_OPEN 은 시험 호출을 얻은 이 스레드만 바꿀 수 있음
+        boolean trial = circuit.get() == Circuit.HALF_OPEN;
+        long start = System.nanoTime();
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            T resp = restTemplate.postForObject(baseUrl + "/" + operation, new HttpEntity<>(body, headers), responseType);
+            callTimer(operation, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            onSuccess();
+            return resp;
+        } catch (HttpServerErrorException | ResourceAccessException e) {
+            // 5xx, 연결 실패, 타임아웃만 서버 장애로 보고 회로에 반영
+            String outcome = isTimeout(e) ? "timeout" : "error";
+            callTimer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            onFailure();
+            log.warn("AI {} call failed ({}): {}", operation, outcome, e.getMessage());
+            throw Unavailable.INSTANCE;
+        } catch (RestClientException e) {
+            // 4xx(잘못된/못 읽는 이미지 URL 등)나 응답 형식 오류: 서버는 응답했으므로 장애로 세지 않음
+            callTimer(operation, "rejected").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            onSuccess();
+            log.debug("AI {} call rejected: {}", operation, e.getMessage());
+            throw Unavailable.INSTANCE;
+        } finally {
+            bulkhead.release();
+            if (trial && circuit.get() == Circuit.HALF_OPEN) {
+                // 예상 못 한 예외로 시험 호출이 끝났으면 HALF_OPEN 에 멈추지 않도록 다음 요청이 다시 시험하게 함
+                retryAt = System.nanoTime();
+                circuit.compareAndSet(Circuit.HALF_OPEN, Circuit.OPEN);
+            }
+        }
+    }
+
+    // ===== 회로 차단 =====
+
+    private boolean allowCall() {
+        Circuit c = circuit.get();
+        if (c == Circuit.CLOSED) {
+            return true;
+        }
+        // 열린 지 open-duration 이 지났으면 한 요청만 시험 호출
+        return c == Circuit.OPEN
+                && System.nanoTime() - retryAt >= 0
+                && circuit.compareAndSet(Circuit.OPEN, Circuit.HALF_OPEN);
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (circuit.getAndSet(Circuit.CLOSED) != Circuit.CLOSED) {
+            closedOpenNanos.addAndGet(System.nanoTime() - openedAt);
+            log.info("AI server recovered, circuit closed");
+        }
+    }
+
+    private void onFailure() {
+        long now = System.nanoTime();
+        if (circuit.compareAndSet(Circuit.HALF_OPEN, Circuit.OPEN)) {
+            // 시험 호출 실패 → 다시 기다림 (열린 구간은 이어짐)
+            retryAt = now + openDurationNanos;
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && circuit.get() == Circuit.CLOSED) {
+            // 시각을 먼저 써야 OPEN 을 본 스레드가 올바른 값을 읽음
+            openedAt = now;
+            retryAt = now + openDurationNanos;
+            if (circuit.compareAndSet(Circuit.CLOSED, Circuit.OPEN)) {
+                log.warn("AI server failed {} times in a row, circuit open", failureThreshold);
+            }
+        }
+    }
+
+    private double openSeconds() {
+        long total = closedOpenNanos.get();
+        if (circuit.get() != Circuit.CLOSED) {
+            total += System.nanoTime() - openedAt;
+        }
+        return total / 1e9;
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpTimeoutException || t instanceof SocketTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Timer callTimer(String operation, String outcome) {
+        return Timer.builder("ai.client.requests")
+                .description("AI 서버 호출 시간")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meters);
+    }
+
+    // 호출하지 못함 (스택 트레이스 없는 내부 신호)
+    private static final class Unavailable extends RuntimeException {
+        static final Unavailable INSTANCE = new Unavailable();
+
+        private Unavailable() {
+            super(null, null, false, false);
+        }
+    }
+
+    // AI 서버 요청/응답 형식
+    public static class RecommendRequest {
+        public String imageUrl;
+        public Integer topN;
+    }
+
+    public static class RecommendResponse {
+        public List<Long> similarIds;
+    }
+
+    public static class EmbedRequest {
+        public String imageUrl;
+    }
+
+    public static class EmbedResponse {
+        public float[] vector;
+    }
+}
@@ -1,53 +1,107 @@
 package com.campus.api;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/ai")
 public class AiRecommendController {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final PostRepository postRepo;
+    // AI 서버 대신 최신 게시글을 준 응답이면 "true"
+    static final String DEGRADED_HEADER = "X-Recommendation-Degraded";
+    // 한 번에 추천하는 최대 개수
+    private static final int MAX_TOP_N = 50;
 
-    @Value("${ai.server.url:http://localhost:8000}")
-    private String aiServerUrl;
+    private final AiClient aiClient;
+    private final RecommendationCache recommendationCache;
+    private final SimilarPostIndex similarIndex;
+    private final PostRepository postRepo;
 
-    public AiRecommendController(PostRepository postRepo) {
+    public AiRecommendController(AiClient aiClient,
+                                 RecommendationCache recommendationCache,
+                                 SimilarPostIndex similarIndex,
+                                 PostRepository postRepo) {
+        this.aiClient = aiClient;
+        this.recommendationCache = recommendationCache;
+        this.similarIndex = similarIndex;
         this.postRepo = postRepo;
     }
 
     @PostMapping("/recommend")
-    public List<Post> recommend(@RequestBody AiRequest req) {
+    public ResponseEntity<List<RecommendationDto>> recommend(@RequestBody AiRequest req) {
 
+        if (req.imageUrl == null || req.imageUrl.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "imageUrl is required");
+        }
         if (req.topN == null || req.topN <= 0) {
             req.topN = 5;
         }
+        req.topN = Math.min(req.topN, MAX_TOP_N);
+
+        // 같은 (imageUrl, topN) 이면 캐시된 id 목록 사용 (동시 요청은 AI 호출 한 번으로 합침)
+        int topN = req.topN;
+        List<Long> similarIds = recommendationCache.get(req.imageUrl, topN,
+                () -> findSimilar(req.imageUrl, topN));
+        if (similarIds == null) {
+            // AI 서버 장애/과부하: 기다리지 않고 최신 게시글로 대체
+            return ResponseEntity.ok()
+                    .header(DEGRADED_HEADER, "true")
+                    .body(postRepo.findRecentCards(PageRequest.of(0, req.topN)).stream()
+                            .map(RecommendationDto::from)
+                            .collect(Collectors.toList()));
+        }
 
-        String url = aiServerUrl + "/recommend";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        HttpEntity<AiRequest> entity = new HttpEntity<>(req, headers);
-
-        ResponseEntity<AiResponse> resp = restTemplate.exchange(
-                url,
-                HttpMethod.POST,
-                entity,
-                AiResponse.class
-        );
+        return ResponseEntity.ok(toCards(similarIds));
+    }
 
-        AiResponse ai = resp.getBody();
-        if (ai == null || ai.similarIds == null || ai.similarIds.isEmpty()) {
+    /**
+     * id 목록 → 카드 목록. 필요한 컬럼만 PK IN 조회 한 번으로 읽고,
+     * IN 결과 순서는 의미가 없으므로 유사도 순위(id 목록 순서)로 다시 정렬. 지워진 게시글은 빠짐
+     */
+    private List<RecommendationDto> toCards(List<Long> rankedIds) {
+        if (rankedIds.isEmpty()) {
             return List.of();
         }
+        Map<Long, PostCardView> byId = new HashMap<>();
+        for (PostCardView card : postRepo.findCardsByIdIn(new LinkedHashSet<>(rankedIds))) {
+            byId.put(card.getId(), card);
+        }
+        List<RecommendationDto> result = new ArrayList<>(byId.size());
+        for (Long id : rankedIds) {
+            PostCardView card = byId.remove(id); // 같은 id 가 두 번 오면 한 번만
+            if (card != null) {
+                result.add(RecommendationDto.from(card));
+            }
+        }
+        return result;
+    }
 
-        return postRepo.findAllById(ai.similarIds);
+    /**
+     * JVM 안 벡터 인덱스에서 검색. 게시글 이미지면 저장된 임베딩을 쓰고 그 게시글 자신은 결과에서 뺌
+     * (안 빼면 보고 있는 글이 1위로 나와 topN 한 자리를 차지). 처음 보는 이미지만 AI 서버에서 임베딩.
+     * 인덱스가 아직 비어 있으면(백필 전) 예전처럼 AI 서버 검색. AI 서버를 못 쓰면 null
+     */
+    private List<Long> findSimilar(String imageUrl, int topN) {
+        if (similarIndex.size() == 0) {
+            return aiClient.recommend(imageUrl, topN);
+        }
+        Long sourcePostId = similarIndex.postOfImage(imageUrl);
+        float[] vector = sourcePostId == null ? null : similarIndex.vectorOfPost(sourcePostId);
+        if (vector == null) {
+            vector = aiClient.embed(imageUrl);
+        }
+        return vector == null ? null : similarIndex.search(vector, topN, sourcePostId);
     }
 
     public static class AiRequest {
@@ -55,7 +109,26 @@ public class AiRecommendController {
         public Integer topN;
     }
 
-    public static class AiResponse {
-        public List<Long> similarIds;
+    // 추천 카드 (본문 없이 목록에 필요한 것만)
+    public static class RecommendationDto {
+        public Long id;
+        public Long userId;
+        public String title;
+        public String content; // 본문 앞부분 (카드 미리보기용, 최대 40자)
+        public String imageUrl;
+        public String thumbnailUrl;
+        public Instant createdAt;
+
+        public static RecommendationDto from(PostCardView v) {
+            RecommendationDto d = new RecommendationDto();
+            d.id = v.getId();
+            d.userId = v.getUserId();
+            d.title = v.getTitle();
+            d.content = v.getContentPreview();
+            d.imageUrl = v.getImageUrl();
+            d.thumbnailUrl = UploadStorage.variantUrl(v.getImageUrl(), PostController.LIST_THUMBNAIL_WIDTH);
+            d.createdAt = v.getCreatedAt();
+            return d;
+        }
     }
 }
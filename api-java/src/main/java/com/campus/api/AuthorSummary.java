@@ -0,0 +1,30 @@
+package com.campus.api;
+
+/**
+ * 화면에 작성자를 표시할 때 필요한 최소 정보 (id, 닉네임, 프로필 이미지)
+ * AuthorSummaryCache 에 보관되므로 불변 객체로 둔다.
+ */
+public class AuthorSummary {
+
+    private final Long id;
+    private final String nickname;
+    private final String profileImageUrl;
+
+    public AuthorSummary(Long id, String nickname, String profileImageUrl) {
+        this.id = id;
+        this.nickname = nickname;
+        this.profileImageUrl = profileImageUrl;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNickname() {
+        return nickname;
+    }
+
+    public String getProfileImageUrl() {
+        return profileImageUrl;
+    }
+}
@@ -0,0 +1,73 @@
+package com.campus.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * userId -> AuthorSummary(닉네임, 프로필 이미지) 공용 캐시
+ *
+ * 게시글/댓글/쪽지 응답에서 작성자를 그릴 때 UserRepository 나 lazy 연관관계 대신 이걸 쓴다.
+ * 캐시에 없는 id 들은 getAll 에서 한 번의 IN 쿼리로 채운다.
+ * 조회가 많은 경로라 CoalescingCache 를 씀 (DB 조회를 맵 잠금 밖에서 하므로 가상 스레드 pinning 없음).
+ * 프로필 수정 시 invalidate(userId) 필요.
+ */
+@Component
+public class AuthorSummaryCache {
+
+    private final UserRepository userRepo;
+    private final CoalescingCache<Long, AuthorSummary> cache;
+
+    public AuthorSummaryCache(
+            UserRepository userRepo,
+            @Value("${users.author-cache.max-size:50000}") long maxSize,
+            @Value("${users.author-cache.ttl-minutes:30}") long ttlMinutes
+    ) {
+        this.userRepo = userRepo;
+        this.cache = new CoalescingCache<>(maxSize, Duration.ofMinutes(ttlMinutes));
+    }
+
+    /**
+     * 없는 사용자면 null
+     */
+    public AuthorSummary get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return cache.get(userId, id -> userRepo.findAuthorSummaryById(id).orElse(null));
+    }
+
+    /**
+     * 여러 명 한 번에 조회. 없는 사용자는 결과 맵에서 빠짐
+     */
+    public Map<Long, AuthorSummary> getAll(Collection<Long> userIds) {
+        Set<Long> ids = new LinkedHashSet<>(userIds);
+        ids.removeIf(Objects::isNull);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return cache.getAll(ids, missing -> {
+            Map<Long, AuthorSummary> found = new HashMap<>();
+            for (AuthorSummary a : userRepo.findAuthorSummariesByIdIn(missing)) {
+                found.put(a.getId(), a);
+            }
+            return found;
+        });
+    }
+
+    /**
+     * 트랜잭션 안에서 호출되면 커밋 후에 한 번 더 지움
+     * (커밋 전에 다른 요청이 옛 닉네임/이미지를 다시 캐시에 올리면 TTL 동안 남음)
+     */
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+        AfterCommit.run(() -> cache.invalidate(userId));
+    }
+}
@@ -0,0 +1,76 @@
+package com.campus.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 게시글/프로필이 가리키는 업로드 파일의 참조 수 관리
+ *
+ * 호출한 트랜잭션 안에서 stored_blobs.ref_count 를 증감하므로,
+ * 글 저장이 롤백되면 참조 수도 같이 롤백된다.
+ * 외부 URL 이나 해시 이름 이전에 올라온 파일은 관리 대상이 아니라서 무시된다.
+ * 참조를 새로 붙일 때 파일이 이미 정리됐으면 400 (트랜잭션 롤백).
+ */
+@Component
+public class BlobReferences {
+
+    private final StoredBlobRepository blobRepo;
+    private final UploadStorage storage;
+
+    public BlobReferences(StoredBlobRepository blobRepo, UploadStorage storage) {
+        this.blobRepo = blobRepo;
+        this.storage = storage;
+    }
+
+    public void retain(Collection<String> urls) {
+        replace(List.of(), urls);
+    }
+
+    public void release(Collection<String> urls) {
+        replace(urls, List.of());
+    }
+
+    /**
+     * before → after 로 바뀐 만큼만 증감 (그대로인 이미지는 건드리지 않음)
+     */
+    public void replace(Collection<String> before, Collection<String> after) {
+        // 이름 순서로 (다른 트랜잭션과 같은 순서로 행을 잠그도록)
+        Map<String, Integer> deltas = new TreeMap<>();
+        count(deltas, before, -1);
+        count(deltas, after, 1);
+        deltas.forEach((name, delta) -> {
+            if (delta > 0) {
+                // 이미 정리된 파일이면 글 저장을 막음 (다시 올려야 함)
+                if (!storage.addReferences(name, delta)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Uploaded image no longer exists, please upload it again: " + name);
+                }
+            } else if (delta < 0) {
+                blobRepo.addRefCount(name, delta);
+            }
+        });
+    }
+
+    // 단일 URL 필드(게시글 이미지, 프로필 이미지)용
+    public static List<String> urls(String url) {
+        return url == null ? List.of() : List.of(url);
+    }
+
+    private static void count(Map<String, Integer> deltas, Collection<String> urls, int sign) {
+        if (urls == null) {
+            return;
+        }
+        for (String url : urls) {
+            String name = UploadStorage.storedNameOf(url);
+            if (name != null) {
+                deltas.merge(name, sign, Integer::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.campus.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * 업로드 파일 바이트 저장소
+ *
+ * key(저장 이름) 단위로 쓰기/읽기/삭제만 담당한다. 내용 해시 계산, 참조 수, 락은 UploadStorage 몫.
+ * 구현은 storage.type 으로 고른다: local(기본, 해시 앞자리로 나눈 디렉토리), memory(테스트/개발용).
+ */
+public interface BlobStore {
+
+    // key 형식: 영숫자로 시작, 영숫자 . _ - 만 (경로 구분자 없음)
+    Pattern VALID_KEY = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,199}");
+
+    static boolean isValidKey(String key) {
+        return key != null && VALID_KEY.matcher(key).matches();
+    }
+
+    /**
+     * 이름을 아직 모르는 내용 쓰기 시작 (쓰면서 해시를 계산한 뒤 commit 으로 이름을 붙임)
+     */
+    Upload newUpload() throws IOException;
+
+    /**
+     * 없으면 null
+     */
+    Blob get(String key) throws IOException;
+
+    boolean exists(String key);
+
+    boolean delete(String key) throws IOException;
+
+    /**
+     * prefix 로 시작하는 key 전부 삭제 (원본의 축소본들 정리용). 삭제한 개수
+     */
+    int deleteByPrefix(String prefix) throws IOException;
+
+    /**
+     * 쓰는 중인 내용. commit 전에 close 하면 버려짐
+     */
+    interface Upload extends Closeable {
+
+        OutputStream out();
+
+        /**
+         * key 로 확정. 같은 key 가 이미 있으면 새 내용으로 교체 (원자적으로)
+         */
+        void commit(String key) throws IOException;
+    }
+
+    /**
+     * 저장된 내용 하나
+     */
+    interface Blob {
+
+        long size();
+
+        long lastModified();
+
+        InputStream openStream() throws IOException;
+
+        /**
+         * [position, position + count) 구간을 target 으로 전송
+         */
+        void transferTo(long position, long count, WritableByteChannel target) throws IOException;
+
+        /**
+         * 로컬 파일이면 그 경로 (Tomcat sendfile 용), 아니면 null
+         */
+        Path localPath();
+    }
+}
@@ -0,0 +1,124 @@
+package com.campus.api;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 크기/TTL 제한이 있는 인메모리 캐시 + 같은 키 동시 미스 합치기(single-flight)
+ *
+ * 캐시에 없을 때 처음 들어온 요청 스레드만 loader 를 실행하고,
+ * 그동안 같은 키로 들어온 요청들은 그 결과를 기다렸다가 같이 받는다.
+ * loader 가 예외를 던지면(Error 포함) 캐시에 남기지 않고 기다리던 요청들에도 같은 예외를 던진다.
+ * (완료되지 않은 future 가 맵에 남으면 그 키의 이후 요청이 전부 영원히 기다리게 됨)
+ * loader 가 null 을 반환하면 기다리던 요청들도 null 을 받고, 캐시에는 남지 않는다.
+ * loader 는 맵 잠금 밖(호출한 스레드)에서 실행되므로 DB 조회 중에 가상 스레드가 캐리어에 고정(pinning)되지 않는다.
+ * (Caffeine LoadingCache 의 get 은 ConcurrentHashMap.compute 의 synchronized 안에서 loader 를 실행함)
+ */
+public class CoalescingCache<K, V> {
+
+    private final AsyncCache<K, V> cache;
+
+    public CoalescingCache(long maximumSize, Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        ConcurrentMap<K, CompletableFuture<V>> map = cache.asMap();
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = map.putIfAbsent(key, mine);
+        if (inFlight == null) {
+            // 내가 첫 요청 → 직접 로드
+            try {
+                V value = loader.apply(key);
+                mine.complete(value);
+                return value;
+            } catch (Throwable e) {
+                map.remove(key, mine);
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        return join(inFlight);
+    }
+
+    /**
+     * 여러 키 한 번에. 캐시에 없고 다른 요청이 로드 중도 아닌 키만 모아서 loader 를 한 번 실행.
+     * loader 결과에 없는 키는 캐시하지 않고, 반환 맵에도 값이 있는 키만 들어감
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        ConcurrentMap<K, CompletableFuture<V>> map = cache.asMap();
+
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> mine = new HashMap<>();
+        for (K key : keys) {
+            if (futures.containsKey(key)) {
+                continue;
+            }
+            CompletableFuture<V> f = new CompletableFuture<>();
+            CompletableFuture<V> inFlight = map.putIfAbsent(key, f);
+            if (inFlight == null) {
+                mine.put(key, f);
+                futures.put(key, f);
+            } else {
+                futures.put(key, inFlight);
+            }
+        }
+
+        // 내 것부터 완료한 뒤에 남의 것을 기다림 (서로 기다리는 일 없음)
+        if (!mine.isEmpty()) {
+            try {
+                Map<K, V> loaded = loader.apply(mine.keySet());
+                mine.forEach((k, f) -> f.complete(loaded.get(k)));
+            } catch (Throwable e) {
+                mine.forEach((k, f) -> {
+                    map.remove(k, f);
+                    f.completeExceptionally(e);
+                });
+                throw e;
+            }
+        }
+
+        Map<K, V> result = new LinkedHashMap<>();
+        futures.forEach((k, f) -> {
+            V value = join(f);
+            if (value != null) {
+                result.put(k, value);
+            }
+        });
+        return result;
+    }
+
+    public void invalidate(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+}
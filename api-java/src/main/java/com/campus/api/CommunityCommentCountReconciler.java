@@ -0,0 +1,34 @@
+package com.campus.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * community_posts.comment_count 보정 작업
+ *
+ * 평소에는 댓글 작성/삭제 트랜잭션에서 +1/-1 로 유지하지만,
+ * 수동 데이터 수정 등으로 어긋난 값이 생길 수 있어 주기적으로 실제 댓글 수와 맞춘다.
+ */
+@Component
+public class CommunityCommentCountReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(CommunityCommentCountReconciler.class);
+
+    private final CommunityPostRepository postRepo;
+
+    public CommunityCommentCountReconciler(CommunityPostRepository postRepo) {
+        this.postRepo = postRepo;
+    }
+
+    @Scheduled(cron = "${community.comment-count.reconcile-cron:0 30 4 * * *}")
+    @Transactional
+    public void reconcile() {
+        int fixed = postRepo.reconcileCommentCounts();
+        if (fixed > 0) {
+            log.info("reconciled comment_count on {} community posts", fixed);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 
 public interface CommunityCommentRepository extends JpaRepository<CommunityComment, Long> {
 
+    // 댓글 작성자 정보는 AuthorSummaryCache 에서 채움 (author 는 id 만 사용)
     List<CommunityComment> findByPostOrderByCreatedAtAsc(CommunityPost post);
 
     void deleteAllByPost(CommunityPost post);
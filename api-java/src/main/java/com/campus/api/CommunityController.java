@@ -1,29 +1,47 @@
 package com.campus.api;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/community")
 public class CommunityController {
 
+    // 목록 한 페이지 최대 크기
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CommunityPostRepository postRepo;
     private final CommunityCommentRepository commentRepo;
     private final UserRepository userRepo;
+    private final CommunityPostLikeRepository likeRepo;
+    private final CommunityLikeCounter likeCounter;
+    private final AuthorSummaryCache authorCache;
+    private final BlobReferences blobRefs;
 
     public CommunityController(CommunityPostRepository postRepo,
                                CommunityCommentRepository commentRepo,
-                               UserRepository userRepo) {
+                               UserRepository userRepo,
+                               CommunityPostLikeRepository likeRepo,
+                               CommunityLikeCounter likeCounter,
+                               AuthorSummaryCache authorCache,
+                               BlobReferences blobRefs) {
         this.postRepo = postRepo;
         this.commentRepo = commentRepo;
         this.userRepo = userRepo;
+        this.likeRepo = likeRepo;
+        this.likeCounter = likeCounter;
+        this.authorCache = authorCache;
+        this.blobRefs = blobRefs;
     }
 
     // ===== 1) 커뮤니티 글 목록: GET /community/posts =====
@@ -33,25 +51,28 @@ public class CommunityController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "latest") String sort
     ) {
-        List<CommunityPost> all = postRepo.findAll();
-
-        Comparator<CommunityPost> comparator;
-        if ("popular".equalsIgnoreCase(sort)) {
-            comparator = Comparator
-                    .comparingInt(CommunityPost::getLikeCount)
-                    .thenComparing(CommunityPost::getCreatedAt)
-                    .reversed();
-        } else {
-            // latest
-            comparator = Comparator.comparing(CommunityPost::getCreatedAt).reversed();
+        if (page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must be >= 0");
         }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(page, pageSize);
+
+        // 정렬/페이징은 DB 인덱스에서 처리 → 한 페이지에 size 행만 읽음
+        List<CommunityPost> rows = "popular".equalsIgnoreCase(sort)
+                ? postRepo.findPopular(pageable)
+                : postRepo.findLatest(pageable); // latest
 
-        return all.stream()
-                .sorted(comparator)
-                .skip((long) page * size)
-                .limit(size)
-                .map(ListResponse::from)
+        // 작성자는 AuthorSummaryCache 에서 한 번에 (연관관계 초기화 없음)
+        Map<Long, AuthorSummary> authors = authorCache.getAll(rows.stream()
+                .map(p -> p.getAuthor().getId())
+                .collect(Collectors.toList()));
+
+        List<ListResponse> result = rows.stream()
+                .map(p -> ListResponse.from(p, authors.get(p.getAuthor().getId())))
                 .collect(Collectors.toList());
+        // 아직 DB 에 반영 안 된 좋아요 증감분 더해서 보여줌
+        result.forEach(r -> r.likeCount += likeCounter.pending(r.id));
+        return result;
     }
 
     // ===== 2) 커뮤니티 글 상세: GET /community/posts/{id} =====
@@ -63,11 +84,14 @@ public class CommunityController {
 
         List<CommunityComment> comments = commentRepo.findByPostOrderByCreatedAtAsc(post);
 
-        return DetailResponse.from(post, comments);
+        DetailResponse resp = toDetail(post, comments);
+        resp.likeCount += likeCounter.pending(post.getId());
+        return resp;
     }
 
     // ===== 3) 글 작성: POST /community/posts =====
     @PostMapping("/posts")
+    @Transactional
     public DetailResponse create(
             @RequestHeader("X-USER-ID") Long userId,
             @RequestBody CreatePostRequest req
@@ -79,18 +103,22 @@ public class CommunityController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "content is required");
         }
 
-        User author = userRepo.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "User not found"));
+        AuthorSummary author = authorCache.get(userId);
+        if (author == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
 
-        CommunityPost post = new CommunityPost(author, req.title, req.content, req.imageUrls);
+        CommunityPost post = new CommunityPost(
+                userRepo.getReferenceById(userId), req.title, req.content, req.imageUrls);
         CommunityPost saved = postRepo.save(post);
+        blobRefs.retain(saved.getImageUrls());
 
-        return DetailResponse.from(saved, List.of());
+        return DetailResponse.from(saved, author, List.of());
     }
 
     // ===== 4) 글 수정: PATCH /community/posts/{id} =====
     @PatchMapping("/posts/{id}")
+    @Transactional
     public DetailResponse update(
             @RequestHeader("X-USER-ID") Long userId,
             @PathVariable Long id,
@@ -111,16 +139,18 @@ public class CommunityController {
             post.setContent(req.content);
         }
         if (req.imageUrls != null) {
+            blobRefs.replace(post.getImageUrls(), req.imageUrls);
             post.setImageUrls(req.imageUrls);
         }
 
         CommunityPost saved = postRepo.save(post);
         List<CommunityComment> comments = commentRepo.findByPostOrderByCreatedAtAsc(saved);
-        return DetailResponse.from(saved, comments);
+        return toDetail(saved, comments);
     }
 
     // ===== 5) 글 삭제: DELETE /community/posts/{id} =====
     @DeleteMapping("/posts/{id}")
+    @Transactional
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(
             @RequestHeader("X-USER-ID") Long userId,
@@ -135,27 +165,40 @@ public class CommunityController {
         }
 
         commentRepo.deleteAllByPost(post);
+        likeRepo.deleteAllByPostId(post.getId());
         postRepo.delete(post);
+        blobRefs.release(post.getImageUrls());
+        likeCounter.forget(post.getId());
     }
 
-    // ===== 6) 좋아요 토글 (단순 카운트 증가 버전): POST /community/posts/{id}/like =====
+    // ===== 6) 좋아요 토글: POST /community/posts/{id}/like =====
+    // 이미 눌렀으면 취소, 아니면 좋아요. 글의 like_count 는 CommunityLikeCounter 가 모아서 반영
     @PostMapping("/posts/{id}/like")
+    @Transactional
     public LikeResponse like(
             @RequestHeader("X-USER-ID") Long userId,
             @PathVariable Long id
     ) {
-        CommunityPost post = postRepo.findById(id)
+        int storedCount = postRepo.findLikeCountById(id)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Community post not found"));
 
-        // 간단하게: 누가 눌렀든 항상 +1 (사용자별 토글은 별도 엔티티 필요)
-        post.setLikeCount(post.getLikeCount() + 1);
-        CommunityPost saved = postRepo.save(post);
+        boolean liked;
+        int delta;
+        if (likeRepo.deleteByPostIdAndUserId(id, userId) > 0) {
+            liked = false;
+            delta = -1;
+        } else {
+            // 동시에 두 번 눌러도 유니크 제약 때문에 한 번만 들어감
+            delta = likeRepo.insertIfAbsent(id, userId, Instant.now());
+            liked = true;
+        }
+        likeCounter.add(id, delta);
 
         LikeResponse resp = new LikeResponse();
-        resp.postId = saved.getId();
-        resp.likeCount = saved.getLikeCount();
-        resp.liked = true;
+        resp.postId = id;
+        resp.likeCount = storedCount + likeCounter.pending(id) + delta;
+        resp.liked = liked;
         return resp;
     }
 
@@ -166,14 +209,12 @@ public class CommunityController {
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Community post not found"));
 
-        return commentRepo.findByPostOrderByCreatedAtAsc(post)
-                .stream()
-                .map(CommentDto::from)
-                .collect(Collectors.toList());
+        return toCommentDtos(commentRepo.findByPostOrderByCreatedAtAsc(post));
     }
 
     // ===== 8) 댓글 작성: POST /community/posts/{id}/comments =====
     @PostMapping("/posts/{id}/comments")
+    @Transactional
     public CommentDto createComment(
             @RequestHeader("X-USER-ID") Long userId,
             @PathVariable Long id,
@@ -187,18 +228,22 @@ public class CommunityController {
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Community post not found"));
 
-        User author = userRepo.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "User not found"));
+        AuthorSummary author = authorCache.get(userId);
+        if (author == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
 
-        CommunityComment comment = new CommunityComment(post, author, req.content);
+        CommunityComment comment = new CommunityComment(
+                post, userRepo.getReferenceById(userId), req.content);
         CommunityComment saved = commentRepo.save(comment);
+        postRepo.addCommentCount(post.getId(), 1);
 
-        return CommentDto.from(saved);
+        return CommentDto.from(saved, author);
     }
 
     // ===== 9) 댓글 삭제: DELETE /community/comments/{commentId} =====
     @DeleteMapping("/comments/{commentId}")
+    @Transactional
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteComment(
             @RequestHeader("X-USER-ID") Long userId,
@@ -213,6 +258,21 @@ public class CommunityController {
         }
 
         commentRepo.delete(comment);
+        postRepo.addCommentCount(comment.getPost().getId(), -1);
+    }
+
+    private DetailResponse toDetail(CommunityPost post, List<CommunityComment> comments) {
+        return DetailResponse.from(post, authorCache.get(post.getAuthor().getId()), toCommentDtos(comments));
+    }
+
+    // 댓글 작성자들은 AuthorSummaryCache 에서 한 번에 조회
+    private List<CommentDto> toCommentDtos(List<CommunityComment> comments) {
+        Map<Long, AuthorSummary> authors = authorCache.getAll(comments.stream()
+                .map(c -> c.getAuthor().getId())
+                .collect(Collectors.toList()));
+        return comments.stream()
+                .map(c -> CommentDto.from(c, authors.get(c.getAuthor().getId())))
+                .collect(Collectors.toList());
     }
 
     // ===== DTO들 =====
@@ -227,22 +287,23 @@ public class CommunityController {
         public String profilePic;
         public String thumbnailUrl;
         public int likeCount;
+        public int commentCount;
 
-        public static ListResponse from(CommunityPost p) {
+        public static ListResponse from(CommunityPost p, AuthorSummary author) {
             ListResponse r = new ListResponse();
             r.id = p.getId();
             r.title = p.getTitle();
             r.content = p.getContent();
             r.createdAt = p.getCreatedAt();
             r.likeCount = p.getLikeCount();
+            r.commentCount = p.getCommentCount();
 
-            User author = p.getAuthor();
+            r.authorId = p.getAuthor().getId();
             if (author != null) {
-                r.authorId = author.getId();
                 r.authorNickname = author.getNickname();
                 r.profilePic = author.getProfileImageUrl();
             }
-            r.thumbnailUrl = p.getThumbnailUrl();
+            r.thumbnailUrl = UploadStorage.variantUrl(p.getThumbnailUrl(), PostController.LIST_THUMBNAIL_WIDTH);
             return r;
         }
     }
@@ -258,9 +319,10 @@ public class CommunityController {
         public String profilePic;
         public List<String> imageUrls;
         public int likeCount;
+        public int commentCount;
         public List<CommentDto> comments;
 
-        public static DetailResponse from(CommunityPost p, List<CommunityComment> comments) {
+        public static DetailResponse from(CommunityPost p, AuthorSummary author, List<CommentDto> comments) {
             DetailResponse r = new DetailResponse();
             r.id = p.getId();
             r.title = p.getTitle();
@@ -268,18 +330,16 @@ public class CommunityController {
             r.createdAt = p.getCreatedAt();
             r.updatedAt = p.getUpdatedAt();
             r.likeCount = p.getLikeCount();
+            r.commentCount = p.getCommentCount();
             r.imageUrls = p.getImageUrls();
 
-            User author = p.getAuthor();
+            r.authorId = p.getAuthor().getId();
             if (author != null) {
-                r.authorId = author.getId();
                 r.authorNickname = author.getNickname();
                 r.profilePic = author.getProfileImageUrl();
             }
 
-            r.comments = comments.stream()
-                    .map(CommentDto::from)
-                    .collect(Collectors.toList());
+            r.comments = comments;
             return r;
         }
     }
@@ -291,11 +351,11 @@ public class CommunityController {
         public String content;
         public LocalDateTime createdAt;
 
-        public static CommentDto from(CommunityComment c) {
+        public static CommentDto from(CommunityComment c, AuthorSummary author) {
             CommentDto r = new CommentDto();
             r.id = c.getId();
             r.authorId = c.getAuthor().getId();
-            r.authorNickname = c.getAuthor().getNickname();
+            r.authorNickname = author != null ? author.getNickname() : null;
             r.content = c.getContent();
             r.createdAt = c.getCreatedAt();
             return r;
@@ -0,0 +1,105 @@
+package com.campus.api;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 커뮤니티 글 좋아요 수 write-behind 카운터
+ *
+ * 좋아요/취소 때마다 community_posts 행을 UPDATE 하지 않고
+ * 글별 LongAdder 에 증감분만 쌓아 두었다가, 주기적으로 한 트랜잭션에서
+ * "like_count = like_count + delta" 로 반영한다.
+ * 인기 글에 좋아요가 몰려도 DB 쓰기는 flush 주기당 글 하나에 1번.
+ */
+@Component
+public class CommunityLikeCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(CommunityLikeCounter.class);
+
+    private final CommunityPostRepository postRepo;
+    private final TransactionTemplate tx;
+
+    // postId -> 아직 DB 에 반영 안 된 증감분
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public CommunityLikeCounter(CommunityPostRepository postRepo, TransactionTemplate tx) {
+        this.postRepo = postRepo;
+        this.tx = tx;
+    }
+
+    /**
+     * 증감분 기록. 트랜잭션 안이면 커밋된 뒤에만 반영 (롤백된 좋아요는 세지 않음)
+     */
+    public void add(Long postId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        AfterCommit.run(() -> addPending(postId, delta));
+    }
+
+    // 아직 flush 안 된 증감분 (응답에 DB 값 + 이 값을 보여줌)
+    public int pending(Long postId) {
+        LongAdder a = pending.get(postId);
+        return a == null ? 0 : (int) a.sum();
+    }
+
+    // 글이 삭제되면 남은 증감분은 버림
+    public void forget(Long postId) {
+        pending.remove(postId);
+    }
+
+    /**
+     * 쌓인 증감분을 DB 로 반영
+     */
+    @Scheduled(fixedDelayString = "${community.like.flush-interval-ms:5000}")
+    public void flush() {
+        Map<Long, Long> batch = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> e : pending.entrySet()) {
+            long delta = e.getValue().sumThenReset();
+            if (delta != 0) {
+                batch.put(e.getKey(), delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            tx.executeWithoutResult(status ->
+                    batch.forEach((postId, delta) -> postRepo.addLikeCount(postId, delta.intValue())));
+        } catch (RuntimeException e) {
+            // 실패하면 다음 주기에 다시 시도하도록 되돌려 놓음
+            batch.forEach(this::addPending);
+            log.warn("like count flush failed ({} posts), will retry", batch.size(), e);
+            return;
+        }
+
+        // 반영이 끝나 0 이 된 글은 맵에서 뺌 (안 그러면 좋아요가 한 번이라도 눌린 글이 전부 남아 flush 마다 돎)
+        for (Long postId : pending.keySet()) {
+            pending.computeIfPresent(postId, (k, a) -> a.sum() == 0 ? null : a);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // 맵에서 빼는 쪽과 같은 compute 안에서 더해야 빠진 LongAdder 에 더해져 사라지는 일이 없음
+    private void addPending(Long postId, long delta) {
+        pending.compute(postId, (k, a) -> {
+            LongAdder adder = a == null ? new LongAdder() : a;
+            adder.add(delta);
+            return adder;
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package com.campus.api;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -8,7 +9,17 @@ import java.util.Arrays;
 import java.util.List;
 
 @Entity
-@Table(name = "community_posts")
+// 글 수정 시 바뀐 컬럼만 UPDATE → like_count/comment_count 를 옛 값으로 덮어쓰지 않음
+@DynamicUpdate
+@Table(
+        name = "community_posts",
+        indexes = {
+                // 최신순 목록
+                @Index(name = "idx_community_posts_created_at", columnList = "created_at"),
+                // 인기순 목록 (좋아요 수, 작성 시각)
+                @Index(name = "idx_community_posts_like_created", columnList = "like_count, created_at")
+        }
+)
 public class CommunityPost {
 
     @Id
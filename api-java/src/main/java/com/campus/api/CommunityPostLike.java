@@ -0,0 +1,70 @@
+package com.campus.api;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * 커뮤니티 글 좋아요 (사용자별 1회)
+ * (post_id, user_id) 유니크 제약으로 중복 좋아요를 DB 에서 막는다.
+ */
+@Entity
+@Table(
+        name = "post_likes",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_post_likes_post_user", columnNames = {"post_id", "user_id"})
+        }
+)
+public class CommunityPostLike {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 커뮤니티 글 ID (CommunityPost 의 id)
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    // 좋아요 누른 사용자 ID (User 의 id)
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // ===== 라이프사이클 =====
+    @PrePersist
+    public void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
+    // ===== 생성자 =====
+    protected CommunityPostLike() {
+        // JPA 기본 생성자
+    }
+
+    public CommunityPostLike(Long postId, Long userId) {
+        this.postId = postId;
+        this.userId = userId;
+    }
+
+    // ===== Getter =====
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,33 @@
+package com.campus.api;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface CommunityPostLikeRepository extends JpaRepository<CommunityPostLike, Long> {
+
+    // 좋아요 추가: 이미 있으면 무시 (영향받은 행 수 0/1 반환)
+    @Modifying
+    @Query(value = """
+        insert ignore into post_likes (post_id, user_id, created_at)
+        values (:postId, :userId, :createdAt)
+        """, nativeQuery = true)
+    int insertIfAbsent(
+            @Param("postId") Long postId,
+            @Param("userId") Long userId,
+            @Param("createdAt") Instant createdAt
+    );
+
+    // 좋아요 취소 (영향받은 행 수 0/1 반환)
+    @Modifying
+    @Query("delete from CommunityPostLike l where l.postId = :postId and l.userId = :userId")
+    int deleteByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    // 글 삭제할 때 좋아요도 같이 지우기
+    @Modifying
+    @Query("delete from CommunityPostLike l where l.postId = :postId")
+    int deleteAllByPostId(@Param("postId") Long postId);
+}
@@ -1,6 +1,54 @@
 package com.campus.api;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface CommunityPostRepository extends JpaRepository<CommunityPost, Long> {
+
+    // 작성자 정보는 AuthorSummaryCache 에서 채우므로 users 는 조인하지 않음
+
+    // 최신순 목록 (idx_community_posts_created_at)
+    @Query("""
+        select p
+        from CommunityPost p
+        order by p.createdAt desc, p.id desc
+        """)
+    List<CommunityPost> findLatest(Pageable pageable);
+
+    // 인기순 목록: 좋아요 많은 순, 같으면 최신순 (idx_community_posts_like_created)
+    @Query("""
+        select p
+        from CommunityPost p
+        order by p.likeCount desc, p.createdAt desc, p.id desc
+        """)
+    List<CommunityPost> findPopular(Pageable pageable);
+
+    // 좋아요 수만 가볍게 조회 (글이 없으면 empty)
+    @Query("select p.likeCount from CommunityPost p where p.id = :id")
+    Optional<Integer> findLikeCountById(@Param("id") Long id);
+
+    // 좋아요 수 증감 (CommunityLikeCounter 가 모아서 반영)
+    @Modifying
+    @Query("update CommunityPost p set p.likeCount = p.likeCount + :delta where p.id = :id")
+    int addLikeCount(@Param("id") Long id, @Param("delta") int delta);
+
+    // 댓글 수 증감 (댓글 작성/삭제와 같은 트랜잭션에서 호출)
+    @Modifying
+    @Query("update CommunityPost p set p.commentCount = p.commentCount + :delta where p.id = :id")
+    int addCommentCount(@Param("id") Long id, @Param("delta") int delta);
+
+    // 어긋난 comment_count 를 실제 댓글 수로 일괄 보정 (보정된 글 수 반환)
+    @Modifying
+    @Query(value = """
+        update community_posts p
+        set p.comment_count = (select count(*) from community_comments c where c.post_id = p.id)
+        where p.comment_count <> (select count(*) from community_comments c where c.post_id = p.id)
+        """, nativeQuery = true)
+    int reconcileCommentCounts();
 }
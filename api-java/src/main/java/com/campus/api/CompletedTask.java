@@ -0,0 +1,38 @@
+package com.campus.api;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * 한 번만 돌아야 하는 시작 작업(데이터 채우기 등)의 완료 표시
+ *
+ * 작업 트랜잭션 안에서 먼저 행을 넣어 잠그므로, 서버 여러 대가 같이 떠도 한 곳에서만 돈다.
+ * 작업이 실패해 롤백되면 표시도 같이 사라져 다음 시작 때 다시 돈다.
+ */
+@Entity
+@Table(name = "completed_tasks")
+public class CompletedTask {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private Instant completedAt;
+
+    // ===== 생성자 =====
+    protected CompletedTask() {
+        // JPA 기본 생성자
+    }
+
+    // ===== Getter =====
+
+    public String getName() {
+        return name;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+}
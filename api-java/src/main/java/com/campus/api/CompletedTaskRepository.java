@@ -0,0 +1,19 @@
+package com.campus.api;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface CompletedTaskRepository extends JpaRepository<CompletedTask, String> {
+
+    // 완료 표시 (이미 있으면 0 반환 → 이미 끝난 작업). 다른 트랜잭션이 넣는 중이면 그 커밋/롤백까지 기다림
+    @Modifying
+    @Query(value = """
+        insert ignore into completed_tasks (name, completed_at)
+        values (:name, :now)
+        """, nativeQuery = true)
+    int markCompleted(@Param("name") String name, @Param("now") Instant now);
+}
@@ -1,33 +1,54 @@
 package com.campus.api;
 
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.*;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
 @RequestMapping("/files")
 public class FileController {
 
-    // 프로젝트 실행 디렉토리 기준 /uploads 폴더에 저장
-    private final Path uploadDir = Paths.get("uploads");
+    // 저장 이름이 내용 해시(예전 파일은 UUID)라 같은 URL 의 내용은 바뀌지 않음
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    // ?w= 요청인데 축소본이 아직 없어서 원본을 줄 때
+    private static final String FALLBACK_CACHE_CONTROL = "public, max-age=60";
 
-    public FileController() throws IOException {
-        if (!Files.exists(uploadDir)) {
-            Files.createDirectories(uploadDir);
-        }
+    // Tomcat sendfile 요청 속성 (NIO 커넥터가 지원하면 support 가 true)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final UploadStorage storage;
+    private final ThumbnailGenerator thumbnails;
+
+    // 확장자 -> MIME 타입
+    private final ConcurrentHashMap<String, MediaType> mediaTypes = new ConcurrentHashMap<>();
+
+    public FileController(UploadStorage storage, ThumbnailGenerator thumbnails) {
+        this.storage = storage;
+        this.thumbnails = thumbnails;
     }
 
     /**
@@ -49,17 +70,13 @@ public class FileController {
         for (MultipartFile file : files) {
             if (file.isEmpty()) continue;
 
-            String original = StringUtils.cleanPath(file.getOriginalFilename());
-            String ext = "";
-            int dot = original.lastIndexOf('.');
-            if (dot != -1) {
-                ext = original.substring(dot);
+            // 내용 해시로 저장 (같은 사진이면 기존 파일 재사용)
+            String storedName;
+            try (InputStream in = file.getInputStream()) {
+                storedName = storage.store(in, StringUtils.cleanPath(file.getOriginalFilename()));
             }
-
-            String storedName = UUID.randomUUID().toString().replace("-", "") + ext;
-            Path target = uploadDir.resolve(storedName);
-
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+            // 축소본은 백그라운드에서 (업로드 응답은 기다리지 않음)
+            thumbnails.submit(storedName);
 
             String url = ServletUriComponentsBuilder.fromCurrentContextPath()
                     .path("/files/")
@@ -74,23 +91,130 @@ public class FileController {
     /**
      * 업로드된 파일 내려주기
      * GET /files/{filename}
+     *
+     * - 저장 이름이 내용 해시(예전 파일은 UUID)라 내용이 바뀌지 않으므로 1년 immutable 캐시
+     * - ETag / Last-Modified 로 조건부 요청이면 304 (본문 없음)
+     * - Range: bytes=a-b 한 구간이면 206 부분 응답 (여러 구간이면 전체 응답)
+     * - 본문은 Tomcat sendfile 로 커널이 바로 소켓에 쓰게 하고, 지원 안 되면 BlobStore 구현의 transferTo
+     * - ?w=600 처럼 폭을 주면 축소본(JPEG). 아직 없으면 원본을 짧은 캐시로 내려주고 생성을 예약
      */
     @GetMapping("/{filename}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename)
-            throws MalformedURLException {
+    public void serveFile(@PathVariable String filename,
+                          @RequestParam(value = "w", required = false) Integer width,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+
+        // 이름 형식이 잘못됐거나(../ 등) 없으면 404
+        BlobStore.Blob file = storage.open(filename);
+        if (file == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found");
+        }
 
-        Path file = uploadDir.resolve(filename).normalize();
-        Resource resource = new UrlResource(file.toUri());
+        String servedName = filename;
+        String cacheControl = CACHE_CONTROL;
+        if (width != null && width > 0 && thumbnails.isSource(filename)) {
+            int w = thumbnails.pickWidth(width);
+            BlobStore.Blob derived = storage.openDerivative(filename, w);
+            if (derived != null) {
+                file = derived;
+                servedName = UploadStorage.derivativeName(filename, w);
+            } else {
+                // 축소본이 생기면 바뀌어야 하므로 원본은 오래 캐시하지 않음
+                cacheControl = FALLBACK_CACHE_CONTROL;
+                thumbnails.submit(filename);
+            }
+        }
+
+        long length = file.size();
+        long lastModified = file.lastModified();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        // If-None-Match / If-Modified-Since 처리 (맞으면 304 + ETag/Last-Modified 헤더 세팅)
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setContentType(mediaTypeOf(servedName).toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "inline; filename=\"" + servedName + "\"");
+
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = singleRange(request, etag, lastModified);
+        if (range != null) {
+            if (length == 0 || range.getRangeStart(length) >= length) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
 
-        if (!resource.exists()) {
-            return ResponseEntity.notFound().build();
+        if (HttpMethod.HEAD.matches(request.getMethod()) || count <= 0) {
+            return;
         }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+        Path localPath = file.localPath();
+        if (localPath != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // 응답 본문은 Tomcat 이 요청 처리 후 sendfile 로 전송 (워커 스레드가 바이트를 복사하지 않음)
+            request.setAttribute(SENDFILE_FILENAME, localPath.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        // 로컬 파일이면 FileChannel.transferTo
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        file.transferTo(start, count, out);
+    }
+
+    // 확장자별 MIME 타입 (한 번 판별한 확장자는 재사용)
+    private MediaType mediaTypeOf(String filename) {
+        int dot = filename.lastIndexOf('.');
+        String ext = dot == -1 ? "" : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return mediaTypes.computeIfAbsent(ext, e ->
+                MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM));
+    }
+
+    /**
+     * 한 구간짜리 Range 요청이면 그 구간, 아니면 null (전체 응답).
+     * If-Range 가 현재 ETag/수정 시각과 다르면 파일이 바뀐 것이므로 전체 응답
+     */
+    private HttpRange singleRange(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRangeMatches(request, ifRange, etag, lastModified)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            // 형식이 잘못된 Range 는 무시하고 전체 응답
+            return null;
+        }
+    }
+
+    private boolean ifRangeMatches(HttpServletRequest request, String ifRange, String etag, long lastModified) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            // HTTP 날짜는 초 단위
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 
     // 응답 DTO
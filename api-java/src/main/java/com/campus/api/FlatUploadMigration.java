@@ -0,0 +1,83 @@
+package com.campus.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 예전 평면 uploads/ (및 uploads/derived/) 파일을 샤드 디렉토리로 옮기는 일회성 작업
+ *
+ * 시작할 때마다 돌지만 옮길 파일이 없으면 디렉토리 목록만 보고 끝난다.
+ * 옮기는 동안에도 ShardedFileBlobStore 가 예전 경로를 같이 찾으므로 서빙은 끊기지 않는다.
+ */
+@Component
+@ConditionalOnExpression("'${storage.type:local}' == 'local' or '${storage.type:local}' == 'packed'")
+public class FlatUploadMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(FlatUploadMigration.class);
+
+    private final ShardedFileBlobStore store;
+
+    public FlatUploadMigration(ShardedFileBlobStore store) {
+        this.store = store;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            Path legacyDerived = store.root().resolve(ShardedFileBlobStore.LEGACY_DERIVED_DIR);
+            int moved = moveFlatFiles(store.root());
+            if (Files.isDirectory(legacyDerived)) {
+                moved += moveFlatFiles(legacyDerived);
+                deleteIfEmpty(legacyDerived);
+            }
+            if (moved > 0) {
+                log.info("moved {} uploads into sharded directories", moved);
+            }
+        } catch (IOException e) {
+            // 다음 시작 때 이어서 진행 (남은 파일은 예전 경로에서 계속 서빙됨)
+            log.warn("upload re-sharding stopped", e);
+        }
+    }
+
+    private int moveFlatFiles(Path dir) throws IOException {
+        int moved = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, Files::isRegularFile)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(".upload-")) {
+                    // 이전 버전이 남긴 업로드 임시 파일
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                if (!BlobStore.isValidKey(name)) {
+                    continue;
+                }
+                Path target = store.shardedPath(name);
+                Files.createDirectories(target.getParent());
+                // 같은 이름이면 같은 내용(해시/UUID)이므로 덮어써도 됨
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    private static void deleteIfEmpty(Path dir) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            if (entries.iterator().hasNext()) {
+                return;
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+}
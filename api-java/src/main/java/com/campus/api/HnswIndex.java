@@ -0,0 +1,363 @@
+package com.campus.api;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * HNSW (Hierarchical Navigable Small World) 근사 최근접 이웃 그래프
+ *
+ * 노드 번호 = VectorStore slot 번호. 벡터는 정규화돼 있다고 보고 거리 = 1 - 내적.
+ * 삭제는 표시만 하고(그래프 연결은 그대로 두어 탐색 경로 유지) 검색 결과에서 뺀다.
+ * 표시된 노드가 많아지면 SimilarPostIndex 가 살아 있는 노드만으로 다시 만든다.
+ * 스레드 안전하지 않음. 검색끼리는 동시에 해도 되지만 추가/삭제와는 동시에 하면 안 됨.
+ */
+public class HnswIndex {
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int VERSION = 1;
+
+    private static final Comparator<Scored> NEAREST_FIRST = Comparator.comparingDouble(s -> s.distance);
+    private static final Comparator<Scored> FARTHEST_FIRST = NEAREST_FIRST.reversed();
+
+    private final VectorStore vectors;
+    private final int m;              // 레벨 1 이상 최대 이웃 수
+    private final int m0;             // 레벨 0 최대 이웃 수
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random();
+
+    private int size;
+    private long[] ids = new long[64];
+    // links[node][level] = {이웃 수, 이웃1, 이웃2, ...}
+    private int[][][] links = new int[64][][];
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(VectorStore vectors, int m, int efConstruction) {
+        this.vectors = vectors;
+        this.m = m;
+        this.m0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int liveCount() {
+        return size - deletedCount;
+    }
+
+    public int deletedCount() {
+        return deletedCount;
+    }
+
+    public long id(int node) {
+        return ids[node];
+    }
+
+    public boolean isDeleted(int node) {
+        return deleted.get(node);
+    }
+
+    public VectorStore vectors() {
+        return vectors;
+    }
+
+    /**
+     * 노드 추가 후 노드 번호 반환. vector 는 정규화된 것이어야 함
+     */
+    public int add(long id, float[] vector) throws IOException {
+        int node = size;
+        ensureCapacity(node + 1);
+        vectors.set(node, vector);
+
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        ids[node] = id;
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[maxNeighbors(l) + 1];
+        }
+        size++;
+
+        if (entryPoint == -1) {
+            entryPoint = node;
+            maxLevel = level;
+            return node;
+        }
+
+        // 위 레벨에서는 가장 가까운 노드 하나만 따라 내려옴
+        Scored ep = new Scored(entryPoint, distance(vector, entryPoint));
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedyClosest(vector, ep, l);
+        }
+
+        List<Scored> entries = List.of(ep);
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Scored> found = sortedNearestFirst(searchLayer(vector, entries, efConstruction, l, null));
+            List<Scored> selected = selectNeighbors(found, maxNeighbors(l));
+            int[] mine = links[node][l];
+            for (Scored s : selected) {
+                mine[++mine[0]] = s.node;
+            }
+            for (Scored s : selected) {
+                connect(s.node, node, l);
+            }
+            entries = found;
+        }
+
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+        return node;
+    }
+
+    public void markDeleted(int node) {
+        if (!deleted.get(node)) {
+            deleted.set(node);
+            deletedCount++;
+        }
+    }
+
+    /**
+     * query 와 가까운 순으로 최대 k 개. accept 가 false 인 노드(삭제 표시 포함)는 결과에서 빼지만 탐색 경로로는 씀
+     */
+    public List<Scored> search(float[] query, int k, int ef, IntPredicate accept) {
+        if (entryPoint == -1 || k <= 0) {
+            return List.of();
+        }
+        IntPredicate live = node -> !deleted.get(node) && (accept == null || accept.test(node));
+
+        Scored ep = new Scored(entryPoint, distance(query, entryPoint));
+        for (int l = maxLevel; l > 0; l--) {
+            ep = greedyClosest(query, ep, l);
+        }
+        List<Scored> found = sortedNearestFirst(searchLayer(query, List.of(ep), Math.max(ef, k), 0, live));
+        return found.size() > k ? new ArrayList<>(found.subList(0, k)) : found;
+    }
+
+    // ===== 저장 / 불러오기 (벡터는 VectorStore 파일에 따로 있음) =====
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(vectors.dimensions());
+        out.writeInt(m);
+        out.writeInt(size);
+        out.writeInt(entryPoint);
+        out.writeInt(maxLevel);
+        for (int node = 0; node < size; node++) {
+            out.writeLong(ids[node]);
+            out.writeBoolean(deleted.get(node));
+            out.writeByte(links[node].length);
+            for (int[] level : links[node]) {
+                out.writeShort(level[0]);
+                for (int i = 1; i <= level[0]; i++) {
+                    out.writeInt(level[i]);
+                }
+            }
+        }
+    }
+
+    public static HnswIndex read(DataInputStream in, VectorStore vectors, int efConstruction) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("not an HNSW snapshot");
+        }
+        int dimensions = in.readInt();
+        if (dimensions != vectors.dimensions()) {
+            throw new IOException("snapshot has " + dimensions + " dimensions, expected " + vectors.dimensions());
+        }
+        HnswIndex index = new HnswIndex(vectors, in.readInt(), efConstruction);
+        int size = in.readInt();
+        index.ensureCapacity(size);
+        index.entryPoint = in.readInt();
+        index.maxLevel = in.readInt();
+        for (int node = 0; node < size; node++) {
+            index.ids[node] = in.readLong();
+            if (in.readBoolean()) {
+                index.deleted.set(node);
+                index.deletedCount++;
+            }
+            int levels = in.readByte();
+            index.links[node] = new int[levels][];
+            for (int l = 0; l < levels; l++) {
+                int[] level = new int[index.maxNeighbors(l) + 1];
+                level[0] = in.readShort();
+                for (int i = 1; i <= level[0]; i++) {
+                    level[i] = in.readInt();
+                }
+                index.links[node][l] = level;
+            }
+        }
+        index.size = size;
+        return index;
+    }
+
+    // ===== 내부 구현 =====
+
+    private int maxNeighbors(int level) {
+        return level == 0 ? m0 : m;
+    }
+
+    private float distance(float[] query, int node) {
+        return 1f - vectors.dot(node, query);
+    }
+
+    private Scored greedyClosest(float[] query, Scored from, int level) {
+        Scored best = from;
+        boolean moved = true;
+        while (moved) {
+            moved = false;
+            int[] nb = links[best.node][level];
+            for (int i = 1; i <= nb[0]; i++) {
+                float d = distance(query, nb[i]);
+                if (d < best.distance) {
+                    best = new Scored(nb[i], d);
+                    moved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 한 레벨에서 ef 개 후보 탐색. accept 가 있으면 통과한 노드만 결과에 넣고, 나머지는 경로로만 씀
+     */
+    private PriorityQueue<Scored> searchLayer(float[] query, List<Scored> entries, int ef, int level,
+                                              IntPredicate accept) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Scored> candidates = new PriorityQueue<>(NEAREST_FIRST);
+        PriorityQueue<Scored> results = new PriorityQueue<>(FARTHEST_FIRST);
+        for (Scored e : entries) {
+            if (!visited.get(e.node)) {
+                visited.set(e.node);
+                candidates.add(e);
+                if (accept == null || accept.test(e.node)) {
+                    results.add(e);
+                }
+            }
+        }
+        while (results.size() > ef) {
+            results.poll();
+        }
+
+        while (!candidates.isEmpty()) {
+            Scored c = candidates.poll();
+            if (results.size() >= ef && c.distance > results.peek().distance) {
+                break;
+            }
+            int[] nb = links[c.node][level];
+            for (int i = 1; i <= nb[0]; i++) {
+                int n = nb[i];
+                if (visited.get(n)) {
+                    continue;
+                }
+                visited.set(n);
+                float d = distance(query, n);
+                if (results.size() < ef || d < results.peek().distance) {
+                    Scored s = new Scored(n, d);
+                    candidates.add(s);
+                    if (accept == null || accept.test(n)) {
+                        results.add(s);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 이웃 선택 휴리스틱: 이미 고른 이웃보다 기준점에 더 가까운 후보만 고르고 (여러 방향으로 연결되도록)
+     * 자리가 남으면 버린 후보 중 가까운 순으로 채움
+     */
+    private List<Scored> selectNeighbors(List<Scored> nearestFirst, int max) {
+        List<Scored> selected = new ArrayList<>(max);
+        List<Scored> pruned = new ArrayList<>();
+        for (Scored c : nearestFirst) {
+            if (selected.size() >= max) {
+                break;
+            }
+            float[] cv = vectors.get(c.node);
+            boolean diverse = true;
+            for (Scored s : selected) {
+                if (distance(cv, s.node) < c.distance) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(c);
+            } else {
+                pruned.add(c);
+            }
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    // node 의 이웃 목록에 added 추가. 꽉 찼으면 기존 이웃 + added 중 가까운 순으로 남김
+    // (여기서 휴리스틱을 다시 돌리면 추가 비용이 두 배 이상인데 검색 품질은 거의 같음)
+    private void connect(int node, int added, int level) {
+        int[] nb = links[node][level];
+        int max = maxNeighbors(level);
+        if (nb[0] < max) {
+            nb[++nb[0]] = added;
+            return;
+        }
+        float[] base = vectors.get(node);
+        List<Scored> candidates = new ArrayList<>(max + 1);
+        for (int i = 1; i <= nb[0]; i++) {
+            candidates.add(new Scored(nb[i], distance(base, nb[i])));
+        }
+        candidates.add(new Scored(added, distance(base, added)));
+        candidates.sort(NEAREST_FIRST);
+        List<Scored> selected = candidates.subList(0, max);
+        nb[0] = selected.size();
+        for (int i = 0; i < selected.size(); i++) {
+            nb[i + 1] = selected.get(i).node;
+        }
+    }
+
+    private static List<Scored> sortedNearestFirst(PriorityQueue<Scored> queue) {
+        List<Scored> list = new ArrayList<>(queue);
+        list.sort(NEAREST_FIRST);
+        return list;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int newLength = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, newLength);
+            links = Arrays.copyOf(links, newLength);
+        }
+    }
+
+    // 노드 + query 와의 거리
+    public static final class Scored {
+        public final int node;
+        public final float distance;
+
+        Scored(int node, float distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.campus.api;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메모리 BlobStore (storage.type=memory)
+ *
+ * 테스트/로컬 개발용. 재시작하면 내용이 사라진다.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "memory")
+public class InMemoryBlobStore implements BlobStore {
+
+    private final ConcurrentHashMap<String, MemoryBlob> blobs = new ConcurrentHashMap<>();
+
+    @Override
+    public Upload newUpload() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        return new Upload() {
+            @Override
+            public OutputStream out() {
+                return buffer;
+            }
+
+            @Override
+            public void commit(String key) {
+                if (!BlobStore.isValidKey(key)) {
+                    throw new IllegalArgumentException("invalid blob key: " + key);
+                }
+                blobs.put(key, new MemoryBlob(buffer.toByteArray(), System.currentTimeMillis()));
+            }
+
+            @Override
+            public void close() {
+                // 버퍼는 GC 가 정리
+            }
+        };
+    }
+
+    @Override
+    public Blob get(String key) {
+        return key == null ? null : blobs.get(key);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return key != null && blobs.containsKey(key);
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return key != null && blobs.remove(key) != null;
+    }
+
+    @Override
+    public int deleteByPrefix(String prefix) {
+        int before = blobs.size();
+        blobs.keySet().removeIf(k -> k.startsWith(prefix));
+        return before - blobs.size();
+    }
+
+    private static final class MemoryBlob implements Blob {
+        private final byte[] data;
+        private final long lastModified;
+
+        MemoryBlob(byte[] data, long lastModified) {
+            this.data = data;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public long size() {
+            return data.length;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new ByteArrayInputStream(data);
+        }
+
+        @Override
+        public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            ByteBuffer buf = ByteBuffer.wrap(data, (int) position, (int) count);
+            while (buf.hasRemaining()) {
+                target.write(buf);
+            }
+        }
+
+        @Override
+        public Path localPath() {
+            return null;
+        }
+    }
+}
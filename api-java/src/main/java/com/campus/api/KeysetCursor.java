@@ -0,0 +1,60 @@
+package com.campus.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * (createdAt, id) 기준 키셋 페이지네이션 커서
+ *
+ * 클라이언트에는 "createdAt|id" 를 Base64(URL-safe)로 감싼 불투명 문자열로 내려주고,
+ * 다음 요청에서 그대로 돌려받아 "이 행보다 오래된 행"부터 이어서 조회한다.
+ */
+public final class KeysetCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Instant createdAt;
+    private final Long id;
+
+    private KeysetCursor(Instant createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static String encode(Instant createdAt, Long id) {
+        String raw = createdAt.toString() + "|" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 잘못된 커서는 400 으로 응답
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep <= 0) {
+                throw new IllegalArgumentException("separator missing");
+            }
+            Instant createdAt = Instant.parse(raw.substring(0, sep));
+            Long id = Long.valueOf(raw.substring(sep + 1));
+            return new KeysetCursor(createdAt, id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor");
+        }
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
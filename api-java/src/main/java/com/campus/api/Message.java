@@ -5,7 +5,18 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "messages")
+@Table(
+        name = "messages",
+        indexes = {
+                // 받은 쪽지함 / 안 읽은 쪽지 수 보정
+                @Index(name = "idx_messages_receiver_read", columnList = "receiver_id, is_read"),
+                // 받은 쪽지함 최신순 페이지 조회
+                @Index(name = "idx_messages_receiver_created", columnList = "receiver_id, created_at, id"),
+                // 게시글별 두 사람 대화 페이지 조회 (방향별로 id 범위 seek)
+                @Index(name = "idx_messages_conversation_id",
+                        columnList = "post_id, sender_id, receiver_id, id")
+        }
+)
 public class Message {
 
     @Id
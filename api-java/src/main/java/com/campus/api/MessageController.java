@@ -2,31 +2,58 @@ package com.campus.api;
 
 import org.springframework.data.domain.*;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/messages")
 public class MessageController {
 
+    // 대화 한 번에 가져오는 최대 쪽지 수
+    private static final int MAX_CONVERSATION_SIZE = 100;
+    // 대화 목록 한 페이지 최대 개수
+    private static final int MAX_THREAD_PAGE_SIZE = 100;
+    // 대화 목록에 저장하는 마지막 쪽지 미리보기 길이
+    private static final int PREVIEW_LENGTH = 200;
+
     private final MessageRepository messageRepo;
+    private final MessageThreadRepository threadRepo;
     private final UserRepository userRepo;
     private final PostRepository postRepo;
+    private final AuthorSummaryCache authorCache;
+    private final UnreadMessageCounter unreadCounter;
+    private final MessageEventBroadcaster events;
 
     public MessageController(MessageRepository messageRepo,
+                             MessageThreadRepository threadRepo,
                              UserRepository userRepo,
-                             PostRepository postRepo) {
+                             PostRepository postRepo,
+                             AuthorSummaryCache authorCache,
+                             UnreadMessageCounter unreadCounter,
+                             MessageEventBroadcaster events) {
         this.messageRepo = messageRepo;
+        this.threadRepo = threadRepo;
         this.userRepo = userRepo;
         this.postRepo = postRepo;
+        this.authorCache = authorCache;
+        this.unreadCounter = unreadCounter;
+        this.events = events;
     }
 
     // ===== 1) 쪽지 보내기: POST /messages =====
     @PostMapping
+    @Transactional
     public MessageDto send(
             @RequestHeader("X-USER-ID") Long userId,
             @RequestBody SendMessageRequest req
@@ -38,13 +65,14 @@ public class MessageController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "content is required");
         }
 
-        User sender = userRepo.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Sender not found"));
-
-        User receiver = userRepo.findById(req.receiverId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Receiver not found"));
+        // 존재 확인은 AuthorSummaryCache 로 (users 조회 없이 연관관계에는 프록시만 넣음)
+        AuthorSummary sender = authorCache.get(userId);
+        if (sender == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Sender not found");
+        }
+        if (authorCache.get(req.receiverId) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Receiver not found");
+        }
 
         Post post = null;
         if (req.postId != null) {
@@ -52,29 +80,71 @@ public class MessageController {
                     .orElse(null); // 게시글이 없어도 그냥 null로 보냄
         }
 
-        Message msg = new Message(sender, receiver, post, req.content);
+        Message msg = new Message(
+                userRepo.getReferenceById(userId),
+                userRepo.getReferenceById(req.receiverId),
+                post,
+                req.content);
         Message saved = messageRepo.save(msg);
+        // 잠금 순서는 읽음 처리와 같게: message_threads → users
+        recordInThreads(saved, userId, req.receiverId);
+        unreadCounter.add(req.receiverId, 1);
 
-        return MessageDto.from(saved);
+        MessageDto dto = MessageDto.from(saved, sender);
+        // 받는 사람이 /messages/stream 에 연결돼 있으면 커밋 후 바로 알림
+        events.publishNewMessage(req.receiverId, dto);
+        return dto;
     }
+    // 게시글 하나를 두고 두 사람이 주고받은 대화: GET /messages/conversation
+    // 기본은 최신 size 개. 더 이전 대화는 ?before=<가장 오래된 id>, 새 쪽지는 ?after=<가장 최근 id>
+    // 응답은 항상 오래된 순(id 오름차순)
     @GetMapping("/conversation")
     public List<MessageResponse> getConversation(
             @RequestParam Long postId,
             @RequestParam Long otherUserId,
-            @RequestHeader("X-USER-ID") Long currentUserId
+            @RequestHeader("X-USER-ID") Long currentUserId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size
     ) {
         // 로그인 유저 확인 (선택)
-        User me = userRepo.findById(currentUserId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.UNAUTHORIZED, "로그인 정보가 올바르지 않습니다."));
+        if (authorCache.get(currentUserId) == null) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED, "로그인 정보가 올바르지 않습니다.");
+        }
+        if (before != null && after != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "use either before or after");
+        }
+
+        Pageable limit = PageRequest.of(0, Math.max(1, Math.min(size, MAX_CONVERSATION_SIZE)));
 
-        List<Message> messages =
-                messageRepo.findConversation(postId, currentUserId, otherUserId);
+        // 보낸 쪽/받은 쪽을 따로 size 개씩 읽어서 id 순으로 합친 뒤 size 개만
+        boolean self = currentUserId.equals(otherUserId);
+        List<MessageView> messages = new ArrayList<>();
+        if (after != null) {
+            messages.addAll(messageRepo.findDirectedAfter(postId, currentUserId, otherUserId, after, limit));
+            if (!self) {
+                messages.addAll(messageRepo.findDirectedAfter(postId, otherUserId, currentUserId, after, limit));
+            }
+            messages.sort(Comparator.comparing(MessageView::getId));
+            messages = messages.subList(0, Math.min(messages.size(), limit.getPageSize()));
+        } else {
+            Long beforeId = before != null ? before : Long.MAX_VALUE;
+            messages.addAll(messageRepo.findDirectedBefore(postId, currentUserId, otherUserId, beforeId, limit));
+            if (!self) {
+                messages.addAll(messageRepo.findDirectedBefore(postId, otherUserId, currentUserId, beforeId, limit));
+            }
+            // 최신 size 개를 고른 뒤 화면 표시용 오래된 순으로
+            messages.sort(Comparator.comparing(MessageView::getId).reversed());
+            messages = messages.subList(0, Math.min(messages.size(), limit.getPageSize()));
+            Collections.reverse(messages);
+        }
 
         return messages.stream()
                 .map(MessageResponse::new)
                 .toList();
     }
+
     public static class MessageResponse {
         public Long id;
         public Long senderId;
@@ -84,56 +154,68 @@ public class MessageController {
         public boolean isRead;
         public Instant createdAt;
 
-        public MessageResponse(Message m) {
+        public MessageResponse(MessageView m) {
             this.id = m.getId();
-            this.senderId = m.getSender().getId();
-            this.receiverId = m.getReceiver().getId();
-            this.postId = m.getPost().getId();
+            this.senderId = m.getSenderId();
+            this.receiverId = m.getReceiverId();
+            this.postId = m.getPostId();
             this.content = m.getContent();
             this.isRead = m.isRead();
             this.createdAt = m.getCreatedAt();
         }
     }
+
     // ===== 2) 받은 쪽지함: GET /messages/inbox =====
+    // ?count=false 면 전체 개수 COUNT 없이 hasNext 만 (totalElements/totalPages 는 null)
     @GetMapping("/inbox")
     public MessagePageResponse inbox(
             @RequestHeader("X-USER-ID") Long userId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "createdAt,desc") String sort
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            @RequestParam(defaultValue = "true") boolean count
     ) {
-        User receiver = userRepo.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "User not found"));
+        if (authorCache.get(userId) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
 
-        // sort 파라미터는 일단 createdAt,desc만 지원
-        Sort s = Sort.by(Sort.Direction.DESC, "createdAt");
-        Pageable pageable = PageRequest.of(page, size, s);
+        // sort 파라미터는 일단 createdAt,desc만 지원 (쿼리에 고정)
+        Pageable pageable = PageRequest.of(page, size);
 
-        Page<Message> pageResult = messageRepo.findByReceiverOrderByCreatedAtDesc(receiver, pageable);
+        Slice<MessageView> slice = count
+                ? messageRepo.findInbox(userId, pageable)
+                : messageRepo.findInboxSlice(userId, pageable);
+
+        // 보낸 사람 닉네임/프로필은 AuthorSummaryCache 에서 한 번에
+        Map<Long, AuthorSummary> senders = authorCache.getAll(slice.getContent().stream()
+                .map(MessageView::getSenderId)
+                .collect(Collectors.toList()));
 
         MessagePageResponse resp = new MessagePageResponse();
-        resp.content = pageResult.getContent().stream()
-                .map(MessageDto::from)
+        resp.content = slice.getContent().stream()
+                .map(m -> MessageDto.from(m, senders.get(m.getSenderId())))
                 .collect(Collectors.toList());
-        resp.page = pageResult.getNumber();
-        resp.size = pageResult.getSize();
-        resp.totalElements = pageResult.getTotalElements();
-        resp.totalPages = pageResult.getTotalPages();
-        resp.last = pageResult.isLast();
+        resp.page = slice.getNumber();
+        resp.size = slice.getSize();
+        resp.hasNext = slice.hasNext();
+        resp.last = slice.isLast();
+        if (slice instanceof Page<MessageView> counted) {
+            resp.totalElements = counted.getTotalElements();
+            resp.totalPages = counted.getTotalPages();
+        }
         return resp;
     }
 
     // ===== 3) 안 읽은 쪽지 개수: GET /messages/unread-count =====
+    // UnreadMessageCounter 메모리 값으로 응답 (messages 테이블 조회 없음)
     @GetMapping("/unread-count")
     public UnreadCountResponse unreadCount(
             @RequestHeader("X-USER-ID") Long userId
     ) {
-        User receiver = userRepo.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "User not found"));
-
-        long count = messageRepo.countByReceiverAndIsReadIsFalse(receiver);
+        Long count = unreadCounter.get(userId);
+        if (count == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
 
         UnreadCountResponse resp = new UnreadCountResponse();
         resp.count = count;
@@ -142,6 +224,7 @@ public class MessageController {
 
     // ===== 4) 쪽지 상세: GET /messages/{id} =====
     @GetMapping("/{id}")
+    @Transactional
     public MessageDto getMessage(
             @RequestHeader("X-USER-ID") Long userId,
             @PathVariable Long id
@@ -158,13 +241,155 @@ public class MessageController {
                     "You can only read your own messages");
         }
 
-        // 받는 사람이 조회하면 읽음 처리
+        MessageDto dto = MessageDto.from(msg, authorCache.get(senderId));
+
+        // 받는 사람이 조회하면 읽음 처리 (실제로 바뀐 경우에만 카운터 감소)
         if (receiverId.equals(userId) && !msg.isRead()) {
-            msg.markRead();
-            msg = messageRepo.save(msg);
+            int marked = messageRepo.markReadById(id, Instant.now());
+            if (marked > 0) {
+                threadRepo.decrementUnread(userId, senderId, threadPostId(msg.getPost()), marked);
+            }
+            unreadCounter.add(userId, -marked);
+            events.publishUnreadCount(userId);
+            dto.isRead = true;
+        }
+
+        return dto;
+    }
+
+    // ===== 5) 새 쪽지 알림 스트림 (SSE): GET /messages/stream =====
+    // 이벤트: "unread-count" {count}, "message" MessageDto. 연결 중에는 DB 조회 없음
+    // 브라우저 EventSource 는 헤더를 못 붙이므로 ?userId= 도 허용
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestHeader(value = "X-USER-ID", required = false) Long headerUserId,
+            @RequestParam(value = "userId", required = false) Long paramUserId
+    ) {
+        Long userId = headerUserId != null ? headerUserId : paramUserId;
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "X-USER-ID or userId is required");
+        }
+
+        Long unread = unreadCounter.get(userId);
+        if (unread == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        return events.subscribe(userId, unread);
+    }
+
+    // ===== 6) 내 대화 목록: GET /messages/threads?cursor=&size= =====
+    // message_threads 에서 최근 순 키셋 페이지네이션 (owner_id 인덱스 범위 스캔 한 번)
+    @GetMapping("/threads")
+    public ThreadPageResponse threads(
+            @RequestHeader("X-USER-ID") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        int pageSize = Math.max(1, Math.min(size, MAX_THREAD_PAGE_SIZE));
+        // 다음 페이지 존재 여부 확인용으로 1개 더 조회
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<MessageThread> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = threadRepo.findRecent(userId, limit);
+        } else {
+            KeysetCursor c = KeysetCursor.decode(cursor);
+            rows = threadRepo.findRecentAfter(userId, c.getCreatedAt(), c.getId(), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        // 상대방 닉네임/프로필은 AuthorSummaryCache 에서 한 번에
+        Map<Long, AuthorSummary> peers = authorCache.getAll(rows.stream()
+                .map(MessageThread::getPeerId)
+                .collect(Collectors.toList()));
+
+        ThreadPageResponse resp = new ThreadPageResponse();
+        resp.content = rows.stream()
+                .map(t -> ThreadDto.from(t, peers.get(t.getPeerId())))
+                .collect(Collectors.toList());
+        resp.size = pageSize;
+        resp.hasNext = hasNext;
+        if (hasNext) {
+            MessageThread last = rows.get(rows.size() - 1);
+            resp.nextCursor = KeysetCursor.encode(last.getLastMessageAt(), last.getId());
         }
+        return resp;
+    }
+
+    // ===== 7) 한꺼번에 읽음 처리: POST /messages/read =====
+    // otherUserId 가 있으면 그 사람과의 대화(postId, 없으면 게시글 없는 대화)만, 없으면 받은 쪽지 전체.
+    // upToId 를 주면 그 id 까지만 (화면에 보인 쪽지까지만 읽음 처리할 때)
+    @PostMapping("/read")
+    @Transactional
+    public MarkReadResponse markRead(
+            @RequestHeader("X-USER-ID") Long userId,
+            @RequestBody MarkReadRequest req
+    ) {
+        if (authorCache.get(userId) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+
+        Long upToId = req.upToId != null ? req.upToId : Long.MAX_VALUE;
+        Instant now = Instant.now();
+
+        int marked;
+        if (req.otherUserId != null) {
+            marked = messageRepo.markConversationReadUpTo(userId, req.otherUserId, req.postId, upToId, now);
+            if (marked > 0) {
+                threadRepo.decrementUnread(userId, req.otherUserId,
+                        req.postId != null ? req.postId : MessageThread.NO_POST, marked);
+            }
+        } else {
+            marked = messageRepo.markAllReadUpTo(userId, upToId, now);
+            if (marked > 0) {
+                if (req.upToId == null) {
+                    threadRepo.clearUnread(userId);
+                } else {
+                    threadRepo.recountUnread(userId);
+                }
+            }
+        }
+
+        // 카운터는 바뀐 행 수만큼 한 번에 조정
+        if (marked > 0) {
+            unreadCounter.add(userId, -marked);
+            events.publishUnreadCount(userId);
+        }
+
+        MarkReadResponse resp = new MarkReadResponse();
+        resp.marked = marked;
+        return resp;
+    }
+
+    // 보낸 사람/받는 사람 양쪽 대화 목록 갱신 (받는 사람 쪽만 안 읽은 수 +1)
+    // A→B 와 B→A 가 동시에 오면 같은 두 행을 반대 순서로 잠가 데드락이 나므로 항상 owner_id 작은 쪽부터
+    private void recordInThreads(Message saved, Long senderId, Long receiverId) {
+        Long postId = threadPostId(saved.getPost());
+        String preview = preview(saved.getContent());
+        if (senderId.equals(receiverId)) {
+            threadRepo.upsertLastMessage(senderId, receiverId, postId,
+                    saved.getId(), preview, saved.getCreatedAt(), 0);
+            return;
+        }
+        boolean senderFirst = senderId < receiverId;
+        Long first = senderFirst ? senderId : receiverId;
+        Long second = senderFirst ? receiverId : senderId;
+        threadRepo.upsertLastMessage(first, second, postId,
+                saved.getId(), preview, saved.getCreatedAt(), senderFirst ? 0 : 1);
+        threadRepo.upsertLastMessage(second, first, postId,
+                saved.getId(), preview, saved.getCreatedAt(), senderFirst ? 1 : 0);
+    }
 
-        return MessageDto.from(msg);
+    private static Long threadPostId(Post post) {
+        return post != null ? post.getId() : MessageThread.NO_POST;
+    }
+
+    private static String preview(String content) {
+        return content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH);
     }
 
     // ===== DTO =====
@@ -175,19 +400,35 @@ public class MessageController {
         public String content;
     }
 
+    public static class MarkReadRequest {
+        public Long otherUserId; // 없으면 받은 쪽지 전체
+        public Long postId;
+        public Long upToId;      // 없으면 전부
+    }
+
+    public static class MarkReadResponse {
+        public int marked; // 이번에 읽음 처리된 쪽지 수
+    }
+
     public static class MessageDto {
         public Long id;
         public Long senderId;
+        public String senderNickname;
+        public String senderProfileImageUrl;
         public Long receiverId;
         public Long postId;
         public String content;
         public boolean isRead;
         public Instant createdAt;
 
-        public static MessageDto from(Message m) {
+        public static MessageDto from(Message m, AuthorSummary sender) {
             MessageDto dto = new MessageDto();
             dto.id = m.getId();
             dto.senderId = m.getSender() != null ? m.getSender().getId() : null;
+            if (sender != null) {
+                dto.senderNickname = sender.getNickname();
+                dto.senderProfileImageUrl = sender.getProfileImageUrl();
+            }
             dto.receiverId = m.getReceiver() != null ? m.getReceiver().getId() : null;
             dto.postId = m.getPost() != null ? m.getPost().getId() : null;
             dto.content = m.getContent();
@@ -195,17 +436,67 @@ public class MessageController {
             dto.createdAt = m.getCreatedAt();
             return dto;
         }
+
+        public static MessageDto from(MessageView m, AuthorSummary sender) {
+            MessageDto dto = new MessageDto();
+            dto.id = m.getId();
+            dto.senderId = m.getSenderId();
+            if (sender != null) {
+                dto.senderNickname = sender.getNickname();
+                dto.senderProfileImageUrl = sender.getProfileImageUrl();
+            }
+            dto.receiverId = m.getReceiverId();
+            dto.postId = m.getPostId();
+            dto.content = m.getContent();
+            dto.isRead = m.isRead();
+            dto.createdAt = m.getCreatedAt();
+            return dto;
+        }
     }
 
     public static class MessagePageResponse {
         public List<MessageDto> content;
         public int page;
         public int size;
-        public long totalElements;
-        public int totalPages;
+        public Long totalElements; // count=false 면 null
+        public Integer totalPages; // count=false 면 null
+        public boolean hasNext;
         public boolean last;
     }
 
+    public static class ThreadDto {
+        public Long postId; // 게시글 없는 대화면 null
+        public Long peerId;
+        public String peerNickname;
+        public String peerProfileImageUrl;
+        public Long lastMessageId;
+        public String lastMessagePreview;
+        public Instant lastMessageAt;
+        public int unreadCount;
+
+        public static ThreadDto from(MessageThread t, AuthorSummary peer) {
+            ThreadDto dto = new ThreadDto();
+            dto.postId = t.getPostId() == MessageThread.NO_POST ? null : t.getPostId();
+            dto.peerId = t.getPeerId();
+            if (peer != null) {
+                dto.peerNickname = peer.getNickname();
+                dto.peerProfileImageUrl = peer.getProfileImageUrl();
+            }
+            dto.lastMessageId = t.getLastMessageId();
+            dto.lastMessagePreview = t.getLastMessagePreview();
+            dto.lastMessageAt = t.getLastMessageAt();
+            dto.unreadCount = t.getUnreadCount();
+            return dto;
+        }
+    }
+
+    public static class ThreadPageResponse {
+        public List<ThreadDto> content;
+        public int size;
+        public boolean hasNext;
+        public String nextCursor; // 마지막 페이지면 null
+    }
+
     public static class UnreadCountResponse {
         public long count;
     }
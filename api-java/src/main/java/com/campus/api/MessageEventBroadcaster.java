@@ -0,0 +1,343 @@
+package com.campus.api;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 쪽지 알림 SSE 구독자 관리 (GET /messages/stream)
+ *
+ * 사용자별로 열린 SseEmitter 들을 메모리에 들고 있다가,
+ * 쪽지 전송/읽음 처리가 커밋되면 받는 사람 연결에만 이벤트를 밀어준다.
+ * 연결마다 크기가 정해진 버퍼를 두고, 버퍼가 넘칠 만큼 못 따라오는 연결은 끊는다.
+ * 실제 전송은 별도 스레드 풀에서 하므로 쪽지 보내는 요청은 네트워크 쓰기를 기다리지 않는다.
+ *
+ * 읽지 않는 클라이언트(TCP 윈도가 꽉 참)에 대한 send 는 소켓 쓰기에서 막히고 중간에 끊을 수 없다.
+ * 그래서 send 하나가 send-timeout-ms 를 넘기면 그 연결을 구독자에서 빼고, 막힌 스레드 몫만큼
+ * 풀에 스레드를 하나 더 빌려서 다른 구독자의 전송이 밀리지 않게 한다.
+ * 막힌 send 가 (컨테이너 쓰기 타임아웃 등으로) 풀려나면 연결을 닫고 빌린 스레드를 돌려준다.
+ * SseEmitter 의 send/complete 는 같은 모니터를 잡으므로, 전송 중인 연결의 complete 는 전송 스레드가 한다.
+ */
+@Component
+public class MessageEventBroadcaster {
+
+    private final UnreadMessageCounter unreadCounter;
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final int maxConnectionsPerUser;
+    private final long sendTimeoutNanos;
+    private final int dispatcherThreads;
+    private final int maxStalledWriters;
+    private final ThreadPoolExecutor dispatcher;
+
+    // 막힌 send 때문에 더 빌려 쓰고 있는 스레드 수 (풀 크기 = dispatcherThreads + stalledWriters)
+    private final ReentrantLock poolSizeLock = new ReentrantLock();
+    private int stalledWriters = 0;
+
+    // userId -> 열린 연결들 (오래된 것부터)
+    private final ConcurrentHashMap<Long, Deque<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public MessageEventBroadcaster(
+            UnreadMessageCounter unreadCounter,
+            @Value("${messages.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${messages.stream.buffer-size:32}") int bufferSize,
+            @Value("${messages.stream.max-connections-per-user:5}") int maxConnectionsPerUser,
+            @Value("${messages.stream.dispatcher-threads:4}") int dispatcherThreads,
+            @Value("${messages.stream.send-timeout-ms:5000}") long sendTimeoutMs,
+            @Value("${messages.stream.max-stalled-writers:64}") int maxStalledWriters
+    ) {
+        this.unreadCounter = unreadCounter;
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.dispatcherThreads = dispatcherThreads;
+        this.maxStalledWriters = maxStalledWriters;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatcherThreads, dispatcherThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "message-sse-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 새 연결 등록. 연결 직후 현재 안 읽은 쪽지 수를 한 번 보내줌
+     */
+    public SseEmitter subscribe(Long userId, long initialUnreadCount) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber sub = new Subscriber(userId, emitter, bufferSize);
+
+        emitter.onCompletion(() -> remove(sub));
+        emitter.onTimeout(() -> {
+            remove(sub);
+            emitter.complete();
+        });
+        emitter.onError(e -> remove(sub));
+
+        Deque<Subscriber> conns = subscribers.compute(userId, (id, existing) -> {
+            Deque<Subscriber> d = existing != null ? existing : new ConcurrentLinkedDeque<>();
+            d.addLast(sub);
+            return d;
+        });
+        // 탭을 너무 많이 열면 가장 오래된 연결부터 정리
+        while (conns.size() > maxConnectionsPerUser) {
+            Subscriber oldest = conns.pollFirst();
+            if (oldest != null) {
+                drop(oldest);
+            }
+        }
+
+        enqueue(sub, unreadCountEvent(initialUnreadCount));
+        return emitter;
+    }
+
+    /**
+     * 새 쪽지 알림 + 받는 사람의 안 읽은 수. 트랜잭션 안이면 커밋 후에 보냄
+     */
+    public void publishNewMessage(Long receiverId, MessageController.MessageDto message) {
+        AfterCommit.run(() -> {
+            if (!subscribers.containsKey(receiverId)) {
+                return;
+            }
+            broadcast(receiverId, new Event("message", message));
+            publishUnreadCountNow(receiverId);
+        });
+    }
+
+    /**
+     * 안 읽은 수 변경 알림 (읽음 처리 후). 트랜잭션 안이면 커밋 후에 보냄
+     */
+    public void publishUnreadCount(Long userId) {
+        AfterCommit.run(() -> {
+            if (subscribers.containsKey(userId)) {
+                publishUnreadCountNow(userId);
+            }
+        });
+    }
+
+    /**
+     * 프록시/로드밸런서가 유휴 연결을 끊지 않도록 주기적으로 주석 이벤트 전송
+     */
+    @Scheduled(fixedDelayString = "${messages.stream.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        subscribers.forEach((userId, conns) -> {
+            for (Subscriber sub : conns) {
+                enqueue(sub, Event.HEARTBEAT);
+            }
+        });
+    }
+
+    /**
+     * send 하나가 send-timeout-ms 를 넘긴 연결을 끊고, 막힌 스레드 대신 쓸 스레드를 풀에 추가
+     */
+    @Scheduled(fixedDelayString = "${messages.stream.send-timeout-check-ms:1000}")
+    public void dropStalledWriters() {
+        long now = System.nanoTime();
+        subscribers.forEach((userId, conns) -> {
+            for (Subscriber sub : conns) {
+                long started = sub.sendStartedAt;
+                if (started != 0 && now - started > sendTimeoutNanos && sub.stalled.compareAndSet(false, true)) {
+                    drop(sub);
+                    borrowThread(sub);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(conns -> conns.forEach(sub -> sub.emitter.complete()));
+        subscribers.clear();
+        dispatcher.shutdownNow();
+    }
+
+    // ===== 내부 구현 =====
+
+    private void publishUnreadCountNow(Long userId) {
+        Long count = unreadCounter.get(userId);
+        if (count != null) {
+            broadcast(userId, unreadCountEvent(count));
+        }
+    }
+
+    private Event unreadCountEvent(long count) {
+        MessageController.UnreadCountResponse payload = new MessageController.UnreadCountResponse();
+        payload.count = count;
+        return new Event("unread-count", payload);
+    }
+
+    private void broadcast(Long userId, Event event) {
+        Deque<Subscriber> conns = subscribers.get(userId);
+        if (conns == null) {
+            return;
+        }
+        for (Subscriber sub : conns) {
+            enqueue(sub, event);
+        }
+    }
+
+    private void enqueue(Subscriber sub, Event event) {
+        if (!sub.queue.offer(event)) {
+            // 버퍼가 가득 참 → 느린 연결은 끊고 클라이언트가 재연결하게 함
+            drop(sub);
+            return;
+        }
+        scheduleDrain(sub);
+    }
+
+    private void scheduleDrain(Subscriber sub) {
+        if (sub.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(sub));
+        }
+    }
+
+    private void drain(Subscriber sub) {
+        try {
+            Event event;
+            while (!sub.dropped && (event = sub.queue.poll()) != null) {
+                sub.sendStartedAt = System.nanoTime();
+                try {
+                    sub.emitter.send(event.toSse());
+                } finally {
+                    sub.sendStartedAt = 0;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // 클라이언트가 끊었거나 이미 완료된 연결
+            remove(sub);
+            sub.queue.clear();
+            return;
+        } finally {
+            if (sub.stalled.get()) {
+                releaseThread(sub);
+            }
+            sub.draining.set(false);
+            // 전송 중에 끊기로 한 연결은 send 가 끝난 지금 닫음
+            if (sub.dropped) {
+                completeIfIdle(sub);
+            }
+        }
+        // drain 끝난 직후에 들어온 이벤트 처리
+        if (!sub.queue.isEmpty()) {
+            scheduleDrain(sub);
+        }
+    }
+
+    /**
+     * 연결을 구독자에서 빼고 닫음. 전송 중이면 닫는 건 전송 스레드가 send 를 마친 뒤에 한다
+     * (complete 가 막힌 send 와 같은 모니터를 기다리느라 호출한 쪽까지 막히지 않도록)
+     */
+    private void drop(Subscriber sub) {
+        sub.dropped = true;
+        remove(sub);
+        sub.queue.clear();
+        completeIfIdle(sub);
+    }
+
+    private static void completeIfIdle(Subscriber sub) {
+        // draining 을 잡은 채로 두면 이후 drain 이 다시 예약되지 않음
+        if (sub.draining.compareAndSet(false, true)) {
+            sub.emitter.complete();
+        }
+    }
+
+    private void borrowThread(Subscriber sub) {
+        poolSizeLock.lock();
+        try {
+            // 그 사이 send 가 풀려서 drain 이 끝났거나, 이미 너무 많이 빌렸으면 안 빌림
+            if (sub.released || stalledWriters >= maxStalledWriters) {
+                return;
+            }
+            sub.borrowed = true;
+            stalledWriters++;
+            // 늘릴 때는 max 먼저, 줄일 때는 core 먼저 (core > max 가 되면 예외)
+            dispatcher.setMaximumPoolSize(dispatcherThreads + stalledWriters);
+            dispatcher.setCorePoolSize(dispatcherThreads + stalledWriters);
+        } finally {
+            poolSizeLock.unlock();
+        }
+    }
+
+    private void releaseThread(Subscriber sub) {
+        poolSizeLock.lock();
+        try {
+            sub.released = true;
+            if (!sub.borrowed) {
+                return;
+            }
+            sub.borrowed = false;
+            stalledWriters--;
+            dispatcher.setCorePoolSize(dispatcherThreads + stalledWriters);
+            dispatcher.setMaximumPoolSize(dispatcherThreads + stalledWriters);
+        } finally {
+            poolSizeLock.unlock();
+        }
+    }
+
+    private void remove(Subscriber sub) {
+        subscribers.computeIfPresent(sub.userId, (id, conns) -> {
+            conns.remove(sub);
+            return conns.isEmpty() ? null : conns;
+        });
+    }
+
+    /**
+     * 보낼 이벤트 (SseEventBuilder 는 build 할 때 내부 상태가 바뀌어서 연결마다 새로 만듦)
+     */
+    private static final class Event {
+        static final Event HEARTBEAT = new Event(null, null);
+
+        final String name;
+        final Object data;
+
+        Event(String name, Object data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (name == null) {
+                return SseEmitter.event().comment("ping");
+            }
+            return SseEmitter.event().name(name).data(data);
+        }
+    }
+
+    private static final class Subscriber {
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<Event> queue;
+        final AtomicBoolean draining = new AtomicBoolean(false);
+        // 지금 하고 있는 send 의 시작 시각 (System.nanoTime, 안 보내는 중이면 0)
+        volatile long sendStartedAt = 0;
+        volatile boolean dropped = false;
+        // send 가 send-timeout-ms 를 넘겼는지 / 그 대신 풀 스레드를 하나 더 빌렸는지 (poolSizeLock 으로 보호)
+        final AtomicBoolean stalled = new AtomicBoolean(false);
+        boolean borrowed = false;
+        boolean released = false;
+
+        Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -2,31 +2,113 @@ package com.campus.api;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
 import java.util.List;
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
-    // 받은 쪽지함 (receiver 기준)
-    Page<Message> findByReceiverOrderByCreatedAtDesc(User receiver, Pageable pageable);
+    // 받은 쪽지함 (receiver 기준, 최신순) - 전체 개수 COUNT 포함
+    @Query(value = """
+        select new com.campus.api.MessageView(
+            m.id, m.sender.id, m.receiver.id, m.post.id, m.content, m.isRead, m.createdAt)
+        from Message m
+        where m.receiver.id = :receiverId
+        order by m.createdAt desc, m.id desc
+        """,
+        countQuery = "select count(m) from Message m where m.receiver.id = :receiverId")
+    Page<MessageView> findInbox(@Param("receiverId") Long receiverId, Pageable pageable);
+
+    // 받은 쪽지함 COUNT 없이 (size + 1 개 조회로 다음 페이지 여부만 판단)
+    @Query("""
+        select new com.campus.api.MessageView(
+            m.id, m.sender.id, m.receiver.id, m.post.id, m.content, m.isRead, m.createdAt)
+        from Message m
+        where m.receiver.id = :receiverId
+        order by m.createdAt desc, m.id desc
+        """)
+    Slice<MessageView> findInboxSlice(@Param("receiverId") Long receiverId, Pageable pageable);
+
+    // 읽음 처리 (이미 읽은 쪽지면 0 반환 → 동시에 열어도 카운터는 한 번만 감소)
+    @Modifying
+    @Query("update Message m set m.isRead = true, m.readAt = :readAt where m.id = :id and m.isRead = false")
+    int markReadById(@Param("id") Long id, @Param("readAt") Instant readAt);
+
+    // 받은 쪽지 중 upToId 이하를 한 번에 읽음 처리 (UPDATE 한 번, 바뀐 행 수 반환)
+    @Modifying
+    @Query("""
+        update Message m
+        set m.isRead = true, m.readAt = :readAt
+        where m.receiver.id = :receiverId
+          and m.isRead = false
+          and m.id <= :upToId
+        """)
+    int markAllReadUpTo(
+            @Param("receiverId") Long receiverId,
+            @Param("upToId") Long upToId,
+            @Param("readAt") Instant readAt
+    );
+
+    // 한 대화(게시글 + 보낸 사람)에서 받은 쪽지 중 upToId 이하를 한 번에 읽음 처리
+    // postId 가 null 이면 게시글 없이 주고받은 쪽지
+    @Modifying
+    @Query("""
+        update Message m
+        set m.isRead = true, m.readAt = :readAt
+        where m.receiver.id = :receiverId
+          and m.sender.id = :senderId
+          and ((:postId is null and m.post is null) or m.post.id = :postId)
+          and m.isRead = false
+          and m.id <= :upToId
+        """)
+    int markConversationReadUpTo(
+            @Param("receiverId") Long receiverId,
+            @Param("senderId") Long senderId,
+            @Param("postId") Long postId,
+            @Param("upToId") Long upToId,
+            @Param("readAt") Instant readAt
+    );
 
-    // 안 읽은 쪽지 개수
-    long countByReceiverAndIsReadIsFalse(User receiver);
+    // 대화 한 방향(sender → receiver) 중 beforeId 보다 오래된 N개 (최신순)
+    // idx_messages_conversation_id 를 거꾸로 읽다가 N개에서 멈춤 (양방향을 OR 로 묶으면 범위 전체를 읽고 정렬하게 됨)
+    @Query("""
+        select new com.campus.api.MessageView(
+            m.id, m.sender.id, m.receiver.id, m.post.id, m.content, m.isRead, m.createdAt)
+        from Message m
+        where m.post.id = :postId
+          and m.sender.id = :senderId
+          and m.receiver.id = :receiverId
+          and m.id < :beforeId
+        order by m.id desc
+        """)
+    List<MessageView> findDirectedBefore(
+            @Param("postId") Long postId,
+            @Param("senderId") Long senderId,
+            @Param("receiverId") Long receiverId,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
 
+    // 대화 한 방향 중 afterId 이후 N개 (새로 온 쪽지, 오래된 순)
     @Query("""
-        select m
+        select new com.campus.api.MessageView(
+            m.id, m.sender.id, m.receiver.id, m.post.id, m.content, m.isRead, m.createdAt)
         from Message m
         where m.post.id = :postId
-          and (
-                (m.sender.id = :userId and m.receiver.id = :otherUserId)
-             or (m.sender.id = :otherUserId and m.receiver.id = :userId)
-          )
-        order by m.createdAt asc
+          and m.sender.id = :senderId
+          and m.receiver.id = :receiverId
+          and m.id > :afterId
+        order by m.id asc
         """)
-    List<Message> findConversation(
+    List<MessageView> findDirectedAfter(
             @Param("postId") Long postId,
-            @Param("userId") Long userId,
-            @Param("otherUserId") Long otherUserId
+            @Param("senderId") Long senderId,
+            @Param("receiverId") Long receiverId,
+            @Param("afterId") Long afterId,
+            Pageable pageable
     );
 }
@@ -0,0 +1,99 @@
+package com.campus.api;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * 채팅 목록용 대화방 요약 (비정규화)
+ *
+ * (게시글, 두 사람) 대화 하나당 참여자별로 한 행씩 둔다.
+ * owner 기준으로 "내 대화 목록"을 최근 순으로 인덱스 범위 스캔 한 번에 읽기 위함.
+ * 쪽지 전송/읽음 처리 때 MessageThreadRepository 의 upsert/감소 쿼리로만 갱신한다.
+ */
+@Entity
+@Table(
+        name = "message_threads",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_message_threads_owner_peer_post",
+                        columnNames = {"owner_id", "peer_id", "post_id"})
+        },
+        indexes = {
+                // 내 대화 목록 (최근 순 키셋 페이지네이션)
+                @Index(name = "idx_message_threads_owner_recent", columnList = "owner_id, last_message_at, id")
+        }
+)
+public class MessageThread {
+
+    // 게시글 없이 주고받은 쪽지의 post_id (유니크 키에 NULL 을 쓰지 않기 위함)
+    public static final long NO_POST = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 이 행을 보는 사람
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    // 대화 상대
+    @Column(name = "peer_id", nullable = false)
+    private Long peerId;
+
+    // 관련 게시글 (없으면 NO_POST)
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Column(nullable = false)
+    private Long lastMessageId;
+
+    // 마지막 쪽지 미리보기 (앞부분만)
+    @Column(nullable = false, length = 200)
+    private String lastMessagePreview;
+
+    @Column(nullable = false)
+    private Instant lastMessageAt;
+
+    // owner 가 아직 안 읽은 쪽지 수
+    @Column(nullable = false)
+    private int unreadCount = 0;
+
+    // ===== 생성자 =====
+    protected MessageThread() {
+        // JPA 기본 생성자
+    }
+
+    // ===== Getter =====
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public Long getPeerId() {
+        return peerId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public Long getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public String getLastMessagePreview() {
+        return lastMessagePreview;
+    }
+
+    public Instant getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+}
@@ -0,0 +1,52 @@
+package com.campus.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+/**
+ * 기존 messages 로 message_threads 를 한 번 채움
+ *
+ * 대화 목록 테이블이 생기기 전에 주고받은 쪽지도 GET /messages/threads 에 보이도록 하기 위함.
+ * 이후에는 쪽지 전송/읽음 처리에서만 갱신된다.
+ * 시작 시점엔 이미 요청을 받고 있어서 행 수로는 판단할 수 없으므로(먼저 온 전송 한 건이 백필을 막음)
+ * completed_tasks 표시로 한 번만 돌리고, 그 사이 생긴 행과는 합친다.
+ */
+@Component
+public class MessageThreadBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageThreadBackfill.class);
+
+    private static final String TASK = "message-threads-backfill";
+
+    private final MessageThreadRepository threadRepo;
+    private final CompletedTaskRepository taskRepo;
+    private final TransactionTemplate tx;
+
+    public MessageThreadBackfill(MessageThreadRepository threadRepo,
+                                 CompletedTaskRepository taskRepo,
+                                 TransactionTemplate tx) {
+        this.threadRepo = threadRepo;
+        this.taskRepo = taskRepo;
+        this.tx = tx;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnce() {
+        Integer merged = tx.execute(status -> {
+            // 표시를 먼저 넣어 잠금 (이미 있으면 끝난 작업). 채우기가 실패하면 표시도 롤백됨
+            if (taskRepo.markCompleted(TASK, Instant.now()) == 0) {
+                return null;
+            }
+            return threadRepo.backfillFromMessages();
+        });
+        if (merged != null) {
+            log.info("backfilled message threads from existing messages ({} rows affected)", merged);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.campus.api;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MessageThreadRepository extends JpaRepository<MessageThread, Long> {
+
+    // 내 대화 목록 첫 페이지 (최근 순)
+    @Query("""
+        select t
+        from MessageThread t
+        where t.ownerId = :ownerId
+        order by t.lastMessageAt desc, t.id desc
+        """)
+    List<MessageThread> findRecent(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    // 커서(lastMessageAt, id) 다음 페이지
+    @Query("""
+        select t
+        from MessageThread t
+        where t.ownerId = :ownerId
+          and (t.lastMessageAt < :lastMessageAt
+               or (t.lastMessageAt = :lastMessageAt and t.id < :id))
+        order by t.lastMessageAt desc, t.id desc
+        """)
+    List<MessageThread> findRecentAfter(
+            @Param("ownerId") Long ownerId,
+            @Param("lastMessageAt") Instant lastMessageAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    /**
+     * 새 쪽지 반영 (없으면 생성). 늦게 커밋된 옛 쪽지가 마지막 쪽지를 덮어쓰지 않도록
+     * last_message_id 비교 후 갱신하고, last_message_id 는 비교에 쓰이므로 맨 마지막에 바꾼다.
+     */
+    @Modifying
+    @Query(value = """
+        insert into message_threads
+            (owner_id, peer_id, post_id, last_message_id, last_message_preview, last_message_at, unread_count)
+        values (:ownerId, :peerId, :postId, :messageId, :preview, :sentAt, :unreadDelta)
+        on duplicate key update
+            last_message_preview = case when :messageId > last_message_id
+                                        then :preview else last_message_preview end,
+            last_message_at = case when :messageId > last_message_id
+                                   then :sentAt else last_message_at end,
+            unread_count = unread_count + :unreadDelta,
+            last_message_id = case when :messageId > last_message_id
+                                   then :messageId else last_message_id end
+        """, nativeQuery = true)
+    int upsertLastMessage(
+            @Param("ownerId") Long ownerId,
+            @Param("peerId") Long peerId,
+            @Param("postId") Long postId,
+            @Param("messageId") Long messageId,
+            @Param("preview") String preview,
+            @Param("sentAt") Instant sentAt,
+            @Param("unreadDelta") int unreadDelta
+    );
+
+    // 읽음 처리된 만큼 안 읽은 수 감소 (0 아래로 내려가지 않음)
+    @Modifying
+    @Query("""
+        update MessageThread t
+        set t.unreadCount = case when t.unreadCount > :count then t.unreadCount - :count else 0 end
+        where t.ownerId = :ownerId and t.peerId = :peerId and t.postId = :postId
+        """)
+    int decrementUnread(
+            @Param("ownerId") Long ownerId,
+            @Param("peerId") Long peerId,
+            @Param("postId") Long postId,
+            @Param("count") int count
+    );
+
+    // owner 의 모든 대화 안 읽은 수를 0 으로 (받은 쪽지 전체 읽음 처리 후)
+    @Modifying
+    @Query("""
+        update MessageThread t
+        set t.unreadCount = 0
+        where t.ownerId = :ownerId and t.unreadCount > 0
+        """)
+    int clearUnread(@Param("ownerId") Long ownerId);
+
+    // owner 의 대화별 안 읽은 수를 messages 기준으로 다시 계산 (일부만 읽음 처리된 경우)
+    @Modifying
+    @Query(value = """
+        update message_threads t
+        set t.unread_count = (
+            select count(*)
+            from messages m
+            where m.receiver_id = t.owner_id
+              and m.sender_id = t.peer_id
+              and (m.post_id = t.post_id or (t.post_id = 0 and m.post_id is null))
+              and m.is_read = false
+        )
+        where t.owner_id = :ownerId and t.unread_count > 0
+        """, nativeQuery = true)
+    int recountUnread(@Param("ownerId") Long ownerId);
+
+    /**
+     * 기존 messages 로 대화 목록 채우기 (MessageThreadBackfill 이 한 번).
+     * 그 사이 쪽지 전송으로 생긴 행과는 합친다: 마지막 쪽지는 id 가 큰 쪽, 안 읽은 수는 messages 전체를 다시 센 값
+     * (전송으로 센 쪽지도 messages 에 있으므로 더하지 않고 바꿔야 두 번 세지 않음)
+     */
+    @Modifying
+    @Query(value = """
+        insert into message_threads
+            (owner_id, peer_id, post_id, last_message_id, last_message_preview, last_message_at, unread_count)
+        select t.owner_id, t.peer_id, t.post_id, lm.id, left(lm.content, 200), lm.created_at, t.unread
+        from (
+            select x.owner_id, x.peer_id, x.post_id, max(x.id) as last_id, sum(x.unread) as unread
+            from (
+                select m.sender_id as owner_id, m.receiver_id as peer_id,
+                       coalesce(m.post_id, 0) as post_id, m.id, 0 as unread
+                from messages m
+                union all
+                select m.receiver_id, m.sender_id,
+                       coalesce(m.post_id, 0), m.id, case when m.is_read then 0 else 1 end
+                from messages m
+            ) x
+            group by x.owner_id, x.peer_id, x.post_id
+        ) t
+        join messages lm on lm.id = t.last_id
+        on duplicate key update
+            last_message_preview = case when values(last_message_id) > last_message_id
+                                        then values(last_message_preview) else last_message_preview end,
+            last_message_at = case when values(last_message_id) > last_message_id
+                                   then values(last_message_at) else last_message_at end,
+            unread_count = values(unread_count),
+            last_message_id = greatest(last_message_id, values(last_message_id))
+        """, nativeQuery = true)
+    int backfillFromMessages();
+}
@@ -0,0 +1,62 @@
+package com.campus.api;
+
+import java.time.Instant;
+
+/**
+ * 쪽지 목록 조회용 프로젝션
+ * sender/receiver/post 엔티티를 로딩하지 않고 FK id 만 읽어온다.
+ */
+public class MessageView {
+
+    private final Long id;
+    private final Long senderId;
+    private final Long receiverId;
+    private final Long postId;
+    private final String content;
+    private final boolean read;
+    private final Instant createdAt;
+
+    public MessageView(Long id,
+                       Long senderId,
+                       Long receiverId,
+                       Long postId,
+                       String content,
+                       boolean read,
+                       Instant createdAt) {
+        this.id = id;
+        this.senderId = senderId;
+        this.receiverId = receiverId;
+        this.postId = postId;
+        this.content = content;
+        this.read = read;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getSenderId() {
+        return senderId;
+    }
+
+    public Long getReceiverId() {
+        return receiverId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,61 @@
+package com.campus.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 참조 없는 업로드 파일 정리
+ *
+ * 업로드만 하고 글에 쓰지 않았거나, 글 삭제/이미지 변경으로 더 이상 가리키는 곳이 없는 파일.
+ * 글 작성 중인 업로드를 지우지 않도록 마지막 업로드 후 유예 시간이 지난 것만 지운다.
+ */
+@Component
+public class OrphanBlobCleaner {
+
+    private static final Logger log = LoggerFactory.getLogger(OrphanBlobCleaner.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final StoredBlobRepository blobRepo;
+    private final UploadStorage storage;
+    private final Duration grace;
+
+    public OrphanBlobCleaner(StoredBlobRepository blobRepo,
+                             UploadStorage storage,
+                             @Value("${uploads.orphan-grace-hours:24}") long graceHours) {
+        this.blobRepo = blobRepo;
+        this.storage = storage;
+        this.grace = Duration.ofHours(graceHours);
+    }
+
+    @Scheduled(cron = "${uploads.orphan-cleanup-cron:0 0 5 * * *}")
+    public void cleanup() {
+        Instant cutoff = Instant.now().minus(grace);
+        int deleted = 0;
+        List<String> names;
+        int batchDeleted;
+        do {
+            names = blobRepo.findOrphanNames(cutoff, PageRequest.of(0, BATCH_SIZE));
+            batchDeleted = 0;
+            for (String name : names) {
+                if (storage.deleteIfOrphan(name, cutoff)) {
+                    batchDeleted++;
+                }
+            }
+            deleted += batchDeleted;
+            // 한 배치가 하나도 안 지워졌으면 같은 목록을 반복하지 않도록 종료
+        } while (names.size() == BATCH_SIZE && batchDeleted > 0);
+
+        if (deleted > 0) {
+            log.info("deleted {} unreferenced uploads", deleted);
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package com.campus.api;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 작은 파일을 큰 세그먼트 파일에 이어 붙여 저장하는 BlobStore (storage.type=packed)
+ *
+ * 축소본처럼 작은 이미지(storage.pack.max-blob-bytes 이하)는 <root>/packs/seg-NNNNNN.dat 에 차례로 붙이고,
+ * index.log 에 "key → 세그먼트, 오프셋, 길이" 를 추가 기록한다. 시작할 때 index.log 를 다시 읽어 메모리 색인을 만든다.
+ * 세그먼트는 고정 크기로 mmap 해 두고 읽기는 MappedByteBuffer slice 로 하므로
+ * 요청마다 파일을 열고 닫는 시스템 콜이 없다. 큰 파일은 기존처럼 ShardedFileBlobStore 에 파일 하나씩 저장한다.
+ * 삭제는 색인에서만 빼고, 죽은 바이트가 많은 세그먼트는 주기적인 압축 작업이 살아 있는 것만 옮긴 뒤 지운다.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "storage.type", havingValue = "packed")
+public class PackedBlobStore implements BlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PackedBlobStore.class);
+
+    private static final String PACK_DIR = "packs";
+    private static final String INDEX_LOG = "index.log";
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    // index.log 레코드 종류
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+
+    private final ShardedFileBlobStore files;
+    private final Path dir;
+    private final int maxBlobBytes;
+    private final int segmentBytes;
+    private final double compactDeadRatio;
+
+    // key -> 위치 (prefix 삭제를 위해 정렬된 맵)
+    private final ConcurrentSkipListMap<String, Entry> index = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Integer, Segment> segments = new ConcurrentHashMap<>();
+
+    // 쓰기(추가/삭제/압축)는 한 번에 하나씩. 읽기는 락 없음
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private FileChannel indexLog;
+    private long indexRecords;
+    private Segment active;
+
+    public PackedBlobStore(
+            ShardedFileBlobStore files,
+            @Value("${storage.pack.max-blob-bytes:262144}") int maxBlobBytes,
+            @Value("${storage.pack.segment-bytes:268435456}") int segmentBytes,
+            @Value("${storage.pack.compact-dead-ratio:0.5}") double compactDeadRatio
+    ) throws IOException {
+        this.files = files;
+        this.dir = files.root().resolve(PACK_DIR);
+        this.maxBlobBytes = maxBlobBytes;
+        this.segmentBytes = segmentBytes;
+        this.compactDeadRatio = compactDeadRatio;
+
+        Files.createDirectories(dir);
+        openSegments();
+        replayIndex();
+        this.indexLog = FileChannel.open(dir.resolve(INDEX_LOG),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        log.info("opened pack store: {} blobs in {} segments", index.size(), segments.size());
+    }
+
+    // ===== BlobStore =====
+
+    @Override
+    public Upload newUpload() {
+        return new PackUpload();
+    }
+
+    @Override
+    public Blob get(String key) throws IOException {
+        if (!BlobStore.isValidKey(key)) {
+            return null;
+        }
+        Entry e = index.get(key);
+        return e != null ? new PackedBlob(e) : files.get(key);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return BlobStore.isValidKey(key) && (index.containsKey(key) || files.exists(key));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        if (!BlobStore.isValidKey(key)) {
+            return false;
+        }
+        boolean packed = removeFromPack(key);
+        return files.delete(key) || packed;
+    }
+
+    @Override
+    public int deleteByPrefix(String prefix) throws IOException {
+        int deleted = 0;
+        for (String key : new ArrayList<>(index.subMap(prefix, true, prefix + Character.MAX_VALUE, true).keySet())) {
+            if (removeFromPack(key)) {
+                deleted++;
+            }
+        }
+        return deleted + files.deleteByPrefix(prefix);
+    }
+
+    // ===== 압축 =====
+
+    /**
+     * 죽은 바이트 비율이 높은 세그먼트의 살아 있는 blob 을 현재 세그먼트로 옮기고 세그먼트 파일 삭제.
+     * index.log 도 살아 있는 레코드만으로 다시 씀
+     */
+    @Scheduled(
+            initialDelayString = "${storage.pack.compact-interval-ms:600000}",
+            fixedDelayString = "${storage.pack.compact-interval-ms:600000}")
+    public void compact() {
+        int reclaimed = 0;
+        for (Segment seg : new ArrayList<>(segments.values())) {
+            if (seg == active) {
+                continue;
+            }
+            // 살아 있는 blob 이 없으면 writePos 와 상관없이 바로 삭제
+            // (재시작 후에는 index.log 에 PUT 이 남지 않은 세그먼트의 writePos 가 0 으로 읽힘)
+            if (seg.liveBytes == 0) {
+                try {
+                    if (dropIfEmpty(seg)) {
+                        reclaimed++;
+                    }
+                } catch (IOException e) {
+                    log.warn("pack compaction failed for segment {}", seg.id, e);
+                }
+                continue;
+            }
+            if (seg.writePos == 0) {
+                continue;
+            }
+            double dead = (double) (seg.writePos - seg.liveBytes) / seg.writePos;
+            if (dead < compactDeadRatio) {
+                continue;
+            }
+            try {
+                moveLiveEntries(seg);
+                if (dropIfEmpty(seg)) {
+                    reclaimed++;
+                }
+            } catch (IOException e) {
+                log.warn("pack compaction failed for segment {}", seg.id, e);
+            }
+        }
+        try {
+            rewriteIndexIfBloated();
+        } catch (IOException e) {
+            log.warn("pack index rewrite failed", e);
+        }
+        if (reclaimed > 0) {
+            log.info("pack compaction removed {} segments", reclaimed);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            for (Segment seg : segments.values()) {
+                seg.buffer.force();
+            }
+            indexLog.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ===== 내부 구현: 쓰기 =====
+
+    private void append(String key, byte[] data, long lastModified) throws IOException {
+        writeLock.lock();
+        try {
+            appendLocked(key, data, 0, data.length, lastModified);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void appendLocked(String key, byte[] data, int off, int len, long lastModified) throws IOException {
+        if (active == null || active.writePos + len > segmentBytes) {
+            active = createSegment(nextSegmentId());
+        }
+        Segment seg = active;
+        int offset = seg.writePos;
+        seg.buffer.put(offset, data, off, len);
+        seg.buffer.force(offset, len);
+        seg.writePos += len;
+
+        writeIndexRecord(OP_PUT, key, seg.id, offset, len, lastModified);
+        Entry old = index.put(key, new Entry(seg, offset, len, lastModified));
+        seg.liveBytes += len;
+        if (old != null) {
+            old.segment.liveBytes -= old.length;
+        }
+    }
+
+    private boolean removeFromPack(String key) throws IOException {
+        if (!index.containsKey(key)) {
+            return false;
+        }
+        writeLock.lock();
+        try {
+            Entry old = index.remove(key);
+            if (old == null) {
+                return false;
+            }
+            writeIndexRecord(OP_DELETE, key, 0, 0, 0, 0);
+            old.segment.liveBytes -= old.length;
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void moveLiveEntries(Segment seg) throws IOException {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, Entry> e : index.entrySet()) {
+            if (e.getValue().segment == seg) {
+                keys.add(e.getKey());
+            }
+        }
+        byte[] buf = new byte[0];
+        for (String key : keys) {
+            // blob 하나씩 락을 잡아서 업로드가 오래 막히지 않게 함
+            writeLock.lock();
+            try {
+                Entry e = index.get(key);
+                if (e == null || e.segment != seg) {
+                    continue; // 그 사이 삭제되거나 다시 쓰임
+                }
+                if (buf.length < e.length) {
+                    buf = new byte[e.length];
+                }
+                seg.buffer.get(e.offset, buf, 0, e.length);
+                appendLocked(key, buf, 0, e.length, e.lastModified);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private boolean dropIfEmpty(Segment seg) throws IOException {
+        writeLock.lock();
+        try {
+            if (seg == active || seg.liveBytes > 0) {
+                return false;
+            }
+            segments.remove(seg.id);
+            // 읽는 중인 slice 가 있어도 매핑은 GC 될 때까지 유효함
+            Files.deleteIfExists(seg.path);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // 테스트에서 압축 도중(세그먼트 검사 뒤) 삭제가 끼어든 상황을 재현하려고 패키지 공개
+    void rewriteIndexIfBloated() throws IOException {
+        writeLock.lock();
+        try {
+            if (indexRecords <= 2L * index.size() + 1000) {
+                return;
+            }
+            Path temp = dir.resolve(INDEX_LOG + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (Map.Entry<String, Entry> e : index.entrySet()) {
+                    Entry v = e.getValue();
+                    writeRecord(out, OP_PUT, e.getKey(), v.segment.id, v.offset, v.length, v.lastModified);
+                }
+                out.force(true);
+            }
+            indexLog.close();
+            Files.move(temp, dir.resolve(INDEX_LOG), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            indexLog = FileChannel.open(dir.resolve(INDEX_LOG), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            indexRecords = index.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeIndexRecord(byte op, String key, int segment, int offset, int length, long lastModified)
+            throws IOException {
+        writeRecord(indexLog, op, key, segment, offset, length, lastModified);
+        indexLog.force(false);
+        indexRecords++;
+    }
+
+    private static void writeRecord(FileChannel out, byte op, String key,
+                                    int segment, int offset, int length, long lastModified) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeByte(op);
+        data.writeUTF(key);
+        if (op == OP_PUT) {
+            data.writeInt(segment);
+            data.writeInt(offset);
+            data.writeInt(length);
+            data.writeLong(lastModified);
+        }
+        ByteBuffer buf = ByteBuffer.wrap(bytes.toByteArray());
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+
+    // ===== 내부 구현: 시작 시 복구 =====
+
+    private void openSegments() throws IOException {
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path p : paths) {
+                String name = p.getFileName().toString();
+                int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(id, mapSegment(id, p));
+            }
+        }
+    }
+
+    // index.log 를 처음부터 다시 적용. 마지막 레코드가 잘려 있으면(쓰다 죽음) 그 앞까지만 쓰고 잘라냄
+    private void replayIndex() throws IOException {
+        Path logPath = dir.resolve(INDEX_LOG);
+        if (!Files.exists(logPath)) {
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(logPath);
+        ByteArrayInputStream raw = new ByteArrayInputStream(bytes);
+        DataInputStream in = new DataInputStream(raw);
+        long good = 0;
+        try {
+            while (raw.available() > 0) {
+                byte op = in.readByte();
+                String key = in.readUTF();
+                if (op == OP_PUT) {
+                    int segId = in.readInt();
+                    int offset = in.readInt();
+                    int length = in.readInt();
+                    long lastModified = in.readLong();
+                    Segment seg = segments.get(segId);
+                    if (seg != null) {
+                        Entry old = index.put(key, new Entry(seg, offset, length, lastModified));
+                        if (old != null) {
+                            old.segment.liveBytes -= old.length;
+                        }
+                        seg.liveBytes += length;
+                        seg.writePos = Math.max(seg.writePos, offset + length);
+                    }
+                } else if (op == OP_DELETE) {
+                    Entry old = index.remove(key);
+                    if (old != null) {
+                        old.segment.liveBytes -= old.length;
+                    }
+                } else {
+                    throw new EOFException("unknown record " + op);
+                }
+                indexRecords++;
+                good = bytes.length - raw.available();
+            }
+        } catch (EOFException | UTFDataFormatException e) {
+            log.warn("pack index truncated at byte {} of {}, dropping the tail", good, bytes.length);
+            try (FileChannel ch = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+                ch.truncate(good);
+            }
+        }
+
+        // 다음 쓰기는 가장 최근 세그먼트 뒤에 이어서
+        segments.values().stream()
+                .max((a, b) -> Integer.compare(a.id, b.id))
+                .ifPresent(seg -> active = seg);
+    }
+
+    private int nextSegmentId() {
+        return segments.keySet().stream().mapToInt(Integer::intValue).max().orElse(0) + 1;
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Segment seg = mapSegment(id, dir.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)));
+        segments.put(id, seg);
+        return seg;
+    }
+
+    // 고정 크기로 매핑 (파일시스템이 sparse 파일을 지원하면 실제로 쓴 만큼만 디스크 사용)
+    private Segment mapSegment(int id, Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(ch.size(), segmentBytes);
+            MappedByteBuffer buffer = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(id, path, buffer);
+        }
+    }
+
+    // ===== 내부 타입 =====
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final MappedByteBuffer buffer;
+        // 아래 두 값은 writeLock 안에서만 바뀜
+        volatile int writePos;
+        volatile long liveBytes;
+
+        Segment(int id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class Entry {
+        final Segment segment;
+        final int offset;
+        final int length;
+        final long lastModified;
+
+        Entry(Segment segment, int offset, int length, long lastModified) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static final class PackedBlob implements Blob {
+        private final Entry entry;
+
+        PackedBlob(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public long size() {
+            return entry.length;
+        }
+
+        @Override
+        public long lastModified() {
+            return entry.lastModified;
+        }
+
+        @Override
+        public InputStream openStream() {
+            ByteBuffer slice = entry.segment.buffer.slice(entry.offset, entry.length);
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return slice.hasRemaining() ? slice.get() & 0xff : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (!slice.hasRemaining()) {
+                        return -1;
+                    }
+                    int n = Math.min(len, slice.remaining());
+                    slice.get(b, off, n);
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            ByteBuffer slice = entry.segment.buffer.slice(entry.offset + (int) position, (int) count);
+            while (slice.hasRemaining()) {
+                target.write(slice);
+            }
+        }
+
+        @Override
+        public Path localPath() {
+            // 세그먼트 파일을 요청마다 열지 않도록 sendfile 대신 매핑에서 바로 씀
+            return null;
+        }
+    }
+
+    /**
+     * max-blob-bytes 까지는 메모리에 모았다가 세그먼트에 붙이고, 넘으면 파일 저장소로 넘김
+     */
+    private final class PackUpload implements Upload {
+        private ByteArrayOutputStream small = new ByteArrayOutputStream();
+        private Upload spilled;
+
+        private final OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (spilled == null && small.size() + len > maxBlobBytes) {
+                    spilled = files.newUpload();
+                    small.writeTo(spilled.out());
+                    small = null;
+                }
+                if (spilled != null) {
+                    spilled.out().write(b, off, len);
+                } else {
+                    small.write(b, off, len);
+                }
+            }
+        };
+
+        @Override
+        public OutputStream out() {
+            return out;
+        }
+
+        @Override
+        public void commit(String key) throws IOException {
+            if (!BlobStore.isValidKey(key)) {
+                throw new IllegalArgumentException("invalid blob key: " + key);
+            }
+            if (spilled != null) {
+                spilled.commit(key);
+                removeFromPack(key);
+            } else {
+                append(key, small.toByteArray(), System.currentTimeMillis());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (spilled != null) {
+                spilled.close();
+            }
+        }
+    }
+}
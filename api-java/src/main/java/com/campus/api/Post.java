@@ -5,7 +5,13 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "posts")
+@Table(
+        name = "posts",
+        indexes = {
+                // 피드 키셋 페이지네이션 (createdAt desc, id desc)
+                @Index(name = "idx_posts_created_at_id", columnList = "created_at, id")
+        }
+)
 public class Post {
 
     @Id
@@ -32,6 +38,10 @@ public class Post {
     @Column(nullable = false)
     private Instant updatedAt;
 
+    // 비슷한 게시글 목록을 현재 이미지로 계산한 시각 (결과가 0개여도 남음). 이미지가 바뀌면 null
+    @Column(name = "similarities_computed_at")
+    private Instant similaritiesComputedAt;
+
     // ===== 라이프사이클 =====
 
     @PrePersist
@@ -108,4 +118,12 @@ public class Post {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Instant getSimilaritiesComputedAt() {
+        return similaritiesComputedAt;
+    }
+
+    public void setSimilaritiesComputedAt(Instant similaritiesComputedAt) {
+        this.similaritiesComputedAt = similaritiesComputedAt;
+    }
 }
@@ -0,0 +1,55 @@
+package com.campus.api;
+
+import java.time.Instant;
+
+/**
+ * 게시글 카드(추천 목록 등)용 프로젝션
+ * 본문(content)은 전체 대신 카드에 보이는 앞부분(40자)만 읽어온다.
+ */
+public class PostCardView {
+
+    private final Long id;
+    private final Long userId;
+    private final String title;
+    private final String contentPreview;
+    private final String imageUrl;
+    private final Instant createdAt;
+
+    public PostCardView(Long id,
+                        Long userId,
+                        String title,
+                        String contentPreview,
+                        String imageUrl,
+                        Instant createdAt) {
+        this.id = id;
+        this.userId = userId;
+        this.title = title;
+        this.contentPreview = contentPreview;
+        this.imageUrl = imageUrl;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getContentPreview() {
+        return contentPreview;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -1,5 +1,7 @@
 package com.campus.api;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -8,51 +10,105 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/posts")
 public class PostController {
 
+    // 목록 한 페이지 최대 크기
+    private static final int MAX_PAGE_SIZE = 100;
+    // 목록 카드에 쓰는 축소본 폭 (커뮤니티 목록도 같이 사용)
+    static final int LIST_THUMBNAIL_WIDTH = 600;
+
     private final PostRepository postRepo;
     private final CommentRepository commentRepo;
     private final UserRepository userRepo;
+    private final PostDetailCache detailCache;
+    private final AuthorSummaryCache authorCache;
+    private final BlobReferences blobRefs;
+    private final PostSimilarityRepository similarityRepo;
+    private final PostSimilarityIndexer similarityIndexer;
+    private final PostSimilarityBackfill similarityBackfill;
 
     public PostController(PostRepository postRepo,
                           CommentRepository commentRepo,
-                          UserRepository userRepo) {
+                          UserRepository userRepo,
+                          PostDetailCache detailCache,
+                          AuthorSummaryCache authorCache,
+                          BlobReferences blobRefs,
+                          PostSimilarityRepository similarityRepo,
+                          PostSimilarityIndexer similarityIndexer,
+                          PostSimilarityBackfill similarityBackfill) {
         this.postRepo = postRepo;
         this.commentRepo = commentRepo;
         this.userRepo = userRepo;
+        this.detailCache = detailCache;
+        this.authorCache = authorCache;
+        this.blobRefs = blobRefs;
+        this.similarityRepo = similarityRepo;
+        this.similarityIndexer = similarityIndexer;
+        this.similarityBackfill = similarityBackfill;
     }
 
-    // ===== 1) 게시글 목록 조회: GET /posts =====
+    // ===== 1) 게시글 목록 조회: GET /posts?cursor=&size= =====
+    // 최신순 키셋 페이지네이션. 응답의 nextCursor 를 다음 요청의 cursor 로 그대로 넘기면 됨
     @GetMapping
-    public List<ListResponse> list() {
-        return postRepo.findAll()
-                .stream()
+    public PostPageResponse list(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // 다음 페이지 존재 여부 확인용으로 1개 더 조회
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Post> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = postRepo.findFeedFirstPage(limit);
+        } else {
+            KeysetCursor c = KeysetCursor.decode(cursor);
+            rows = postRepo.findFeedAfter(c.getCreatedAt(), c.getId(), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        PostPageResponse resp = new PostPageResponse();
+        resp.content = rows.stream()
                 .map(ListResponse::from)
                 .collect(Collectors.toList());
+        resp.size = pageSize;
+        resp.hasNext = hasNext;
+        if (hasNext) {
+            Post last = rows.get(rows.size() - 1);
+            resp.nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return resp;
     }
 
     // ===== 2) 게시글 상세 조회: GET /posts/{id} =====
+    // 캐시 적중 시 DB 조회 없음. 같은 글에 동시 미스가 몰려도 로드는 한 번만
     @GetMapping("/{id}")
     public DetailResponse get(@PathVariable Long id) {
+        return detailCache.get(id, this::loadDetail);
+    }
+
+    private DetailResponse loadDetail(Long id) {
         Post post = postRepo.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Post not found"));
 
-        User author = userRepo.findById(post.getUserId())
-                .orElse(null);
+        AuthorSummary author = authorCache.get(post.getUserId());
 
         SimpleUser authorDto = author != null
                 ? SimpleUser.from(author)
                 : null;
 
         List<Comment> comments = commentRepo.findByPostOrderByCreatedAtAsc(post);
-        List<CommentDto> commentDtos = comments.stream()
-                .map(CommentDto::from)
-                .collect(Collectors.toList());
+        List<CommentDto> commentDtos = toCommentDtos(comments);
 
         return new DetailResponse(
                 post.getId(),
@@ -68,6 +124,7 @@ public class PostController {
 
     // ===== 3) 게시글 작성: POST /posts =====
     @PostMapping
+    @Transactional
     public DetailResponse create(
             @RequestHeader("X-USER-ID") Long userId,
             @RequestBody CreatePostRequest req
@@ -87,8 +144,13 @@ public class PostController {
                 req.imageUrl
         );
         Post saved = postRepo.save(post);
+        blobRefs.retain(BlobReferences.urls(saved.getImageUrl()));
+        if (saved.getImageUrl() != null) {
+            // 비슷한 게시글은 커밋 후 백그라운드에서 계산
+            similarityIndexer.schedule(saved.getId());
+        }
 
-        User author = userRepo.findById(userId).orElse(null);
+        AuthorSummary author = authorCache.get(userId);
         SimpleUser authorDto = author != null ? SimpleUser.from(author) : null;
 
         return new DetailResponse(
@@ -105,6 +167,7 @@ public class PostController {
 
     // ===== 4) 게시글 수정: PUT /posts/{id} =====
     @PutMapping("/{id}")
+    @Transactional
     public DetailResponse update(
             @RequestHeader("X-USER-ID") Long userId,
             @PathVariable Long id,
@@ -127,16 +190,21 @@ public class PostController {
             post.setContent(req.content);
         }
         if (req.imageUrl != null) {
+            if (!req.imageUrl.equals(post.getImageUrl())) {
+                post.setSimilaritiesComputedAt(null);
+                similarityIndexer.schedule(post.getId());
+            }
+            blobRefs.replace(BlobReferences.urls(post.getImageUrl()), BlobReferences.urls(req.imageUrl));
             post.setImageUrl(req.imageUrl);
         }
 
         Post saved = postRepo.save(post);
-        User author = userRepo.findById(saved.getUserId()).orElse(null);
+        detailCache.invalidate(saved.getId());
+
+        AuthorSummary author = authorCache.get(saved.getUserId());
         SimpleUser authorDto = author != null ? SimpleUser.from(author) : null;
         List<Comment> comments = commentRepo.findByPostOrderByCreatedAtAsc(saved);
-        List<CommentDto> commentDtos = comments.stream()
-                .map(CommentDto::from)
-                .collect(Collectors.toList());
+        List<CommentDto> commentDtos = toCommentDtos(comments);
 
         return new DetailResponse(
                 saved.getId(),
@@ -169,8 +237,12 @@ public class PostController {
 
         // 먼저 댓글 모두 삭제
         commentRepo.deleteAllByPost(post);
+        similarityRepo.deleteByPostId(id);
+        similarityIndexer.unindexAfterCommit(id);
         // 그 다음 게시글 삭제
         postRepo.delete(post);
+        blobRefs.release(BlobReferences.urls(post.getImageUrl()));
+        detailCache.invalidate(id);
     }
 
     // ===== 6) 댓글 삭제: DELETE /posts/comments/{commentId} =====
@@ -189,6 +261,7 @@ public class PostController {
         }
 
         commentRepo.delete(comment);
+        detailCache.invalidate(comment.getPost().getId());
     }
     // ===== 7) 댓글 작성: POST /posts/{id}/comments =====
     @PostMapping("/{id}/comments")
@@ -205,14 +278,69 @@ public class PostController {
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Post not found"));
 
-        User author = userRepo.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "User not found"));
+        AuthorSummary author = authorCache.get(userId);
+        if (author == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
 
-        Comment comment = new Comment(post, author, req.content);
+        // 존재 확인은 캐시로 했으니 연관관계에는 프록시만 넣음 (users 조회 없음)
+        Comment comment = new Comment(post, userRepo.getReferenceById(userId), req.content);
         Comment saved = commentRepo.save(comment);
+        detailCache.invalidate(post.getId());
 
-        return CommentDto.from(saved);
+        return CommentDto.from(saved, author);
+    }
+
+    // ===== 8) 비슷한 게시글: GET /posts/{id}/similar =====
+    // 미리 계산해 둔 post_similarities 를 읽기만 함 (AI 서버 호출 없음)
+    @GetMapping("/{id}/similar")
+    public List<ListResponse> similar(@PathVariable Long id) {
+        List<Post> posts = similarityRepo.findSimilarPosts(id);
+        if (posts.isEmpty()) {
+            Post post = postRepo.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(
+                            HttpStatus.NOT_FOUND, "Post not found"));
+            // 아직 계산 전이면 예약만 하고 빈 목록 (계산했는데 0개인 것과는 구분)
+            if (post.getImageUrl() != null && post.getSimilaritiesComputedAt() == null) {
+                similarityIndexer.scheduleIfNotRecent(id);
+            }
+            return List.of();
+        }
+        return posts.stream()
+                .map(ListResponse::from)
+                .collect(Collectors.toList());
+    }
+
+    // ===== 9) 비슷한 게시글 백필 시작: POST /posts/similar/backfill =====
+    // 이미 계산된 게시글은 건너뜀. 진행 상황은 GET 으로 확인
+    @PostMapping("/similar/backfill")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public PostSimilarityBackfill.Progress startSimilarityBackfill(
+            @RequestHeader("X-USER-ID") Long userId
+    ) {
+        if (authorCache.get(userId) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        if (!similarityBackfill.start()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Backfill already running");
+        }
+        return similarityBackfill.progress();
+    }
+
+    // ===== 10) 비슷한 게시글 백필 진행 상황: GET /posts/similar/backfill =====
+    @GetMapping("/similar/backfill")
+    public PostSimilarityBackfill.Progress similarityBackfillProgress() {
+        return similarityBackfill.progress();
+    }
+
+    // 댓글 작성자들은 AuthorSummaryCache 에서 한 번에 조회
+    private List<CommentDto> toCommentDtos(List<Comment> comments) {
+        Map<Long, AuthorSummary> authors = authorCache.getAll(comments.stream()
+                .map(c -> c.getAuthor().getId())
+                .collect(Collectors.toList()));
+        return comments.stream()
+                .map(c -> CommentDto.from(c, authors.get(c.getAuthor().getId())))
+                .collect(Collectors.toList());
     }
 
     // ===== DTO =====
@@ -227,6 +355,7 @@ public class PostController {
         public String title;
         public String content;
         public String imageUrl;
+        public String thumbnailUrl; // 목록용 축소본 (업로드 이미지가 아니면 imageUrl 과 같음)
         public Instant createdAt;
 
         public static ListResponse from(Post p) {
@@ -235,11 +364,19 @@ public class PostController {
             r.title = p.getTitle();
             r.content = p.getContent();
             r.imageUrl = p.getImageUrl();
+            r.thumbnailUrl = UploadStorage.variantUrl(p.getImageUrl(), LIST_THUMBNAIL_WIDTH);
             r.createdAt = p.getCreatedAt();
             return r;
         }
     }
 
+    public static class PostPageResponse {
+        public List<ListResponse> content;
+        public int size;
+        public boolean hasNext;
+        public String nextCursor; // 마지막 페이지면 null
+    }
+
     public static class DetailResponse {
         public Long id;
         public String title;
@@ -274,7 +411,7 @@ public class PostController {
         public String nickname;
         public String profileImageUrl;
 
-        public static SimpleUser from(User u) {
+        public static SimpleUser from(AuthorSummary u) {
             SimpleUser r = new SimpleUser();
             r.id = u.getId();
             r.nickname = u.getNickname();
@@ -290,11 +427,11 @@ public class PostController {
         public String content;
         public LocalDateTime createdAt;
 
-        public static CommentDto from(Comment c) {
+        public static CommentDto from(Comment c, AuthorSummary author) {
             CommentDto r = new CommentDto();
             r.id = c.getId();
             r.authorId = c.getAuthor().getId();
-            r.authorNickname = c.getAuthor().getNickname();
+            r.authorNickname = author != null ? author.getNickname() : null;
             r.content = c.getContent();
             r.createdAt = c.getCreatedAt();
             return r;
@@ -0,0 +1,40 @@
+package com.campus.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * 중고 게시글 상세(GET /posts/{id}) 응답 캐시
+ *
+ * 게시글 + 작성자 + 댓글 3개 쿼리로 만든 DetailResponse 를 통째로 캐시한다.
+ * 게시글 수정/삭제, 댓글 작성/삭제 시 invalidate 해야 함.
+ */
+@Component
+public class PostDetailCache {
+
+    private final CoalescingCache<Long, PostController.DetailResponse> cache;
+
+    public PostDetailCache(
+            @Value("${posts.detail-cache.max-size:10000}") long maxSize,
+            @Value("${posts.detail-cache.ttl-seconds:60}") long ttlSeconds
+    ) {
+        this.cache = new CoalescingCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public PostController.DetailResponse get(Long postId,
+                                             Function<Long, PostController.DetailResponse> loader) {
+        return cache.get(postId, loader);
+    }
+
+    /**
+     * 트랜잭션 안에서 호출되면 커밋 후에 한 번 더 지움
+     * (커밋 전에 다른 요청이 옛 데이터를 다시 캐시에 올리는 경우 대비)
+     */
+    public void invalidate(Long postId) {
+        cache.invalidate(postId);
+        AfterCommit.run(() -> cache.invalidate(postId));
+    }
+}
@@ -1,5 +1,53 @@
 package com.campus.api;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
-public interface PostRepository extends JpaRepository<Post, Long> {}
+
+public interface PostRepository extends JpaRepository<Post, Long> {
+
+    // 피드 첫 페이지 (최신순, 동일 시각이면 id 역순)
+    @Query("""
+        select p
+        from Post p
+        order by p.createdAt desc, p.id desc
+        """)
+    List<Post> findFeedFirstPage(Pageable pageable);
+
+    // 커서(createdAt, id) 다음 페이지 - idx_posts_created_at_id 범위 스캔
+    @Query("""
+        select p
+        from Post p
+        where p.createdAt < :createdAt
+           or (p.createdAt = :createdAt and p.id < :id)
+        order by p.createdAt desc, p.id desc
+        """)
+    List<Post> findFeedAfter(
+            @Param("createdAt") Instant createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    // id 목록의 게시글 카드 (PK IN 조회 한 번, 순서는 보장 안 됨 / 없는 id 는 빠짐)
+    @Query("""
+        select new com.campus.api.PostCardView(
+            p.id, p.userId, p.title, substring(p.content, 1, 40), p.imageUrl, p.createdAt)
+        from Post p
+        where p.id in :ids
+        """)
+    List<PostCardView> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 최신 게시글 카드
+    @Query("""
+        select new com.campus.api.PostCardView(
+            p.id, p.userId, p.title, substring(p.content, 1, 40), p.imageUrl, p.createdAt)
+        from Post p
+        order by p.createdAt desc, p.id desc
+        """)
+    List<PostCardView> findRecentCards(Pageable pageable);
+}
@@ -0,0 +1,76 @@
+package com.campus.api;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * 게시글별 비슷한 게시글 목록 (AI 서버 결과를 미리 계산해 둔 것)
+ *
+ * 게시글 하나당 순위별로 한 행씩 둔다. 게시글 작성/이미지 변경 후 PostSimilarityIndexer 가
+ * 백그라운드에서 AI 서버를 한 번 호출해 통째로 다시 쓴다.
+ * GET /posts/{id}/similar 는 (post_id, position) 인덱스 범위 스캔 한 번으로 읽는다.
+ */
+@Entity
+@Table(
+        name = "post_similarities",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_post_similarities_post_position",
+                        columnNames = {"post_id", "position"})
+        }
+)
+public class PostSimilarity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 기준 게시글
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    // 비슷한 게시글
+    @Column(name = "similar_post_id", nullable = false)
+    private Long similarPostId;
+
+    // 0 부터, 작을수록 비슷함
+    @Column(name = "position", nullable = false)
+    private int position;
+
+    @Column(nullable = false)
+    private Instant computedAt;
+
+    // ===== 생성자 =====
+    protected PostSimilarity() {
+        // JPA 기본 생성자
+    }
+
+    public PostSimilarity(Long postId, Long similarPostId, int position, Instant computedAt) {
+        this.postId = postId;
+        this.similarPostId = similarPostId;
+        this.position = position;
+        this.computedAt = computedAt;
+    }
+
+    // ===== Getter =====
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public Long getSimilarPostId() {
+        return similarPostId;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public Instant getComputedAt() {
+        return computedAt;
+    }
+}
@@ -0,0 +1,295 @@
+package com.campus.api;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 기존 게시글의 비슷한 게시글 목록 채우기 (POST /posts/similar/backfill 로 시작)
+ *
+ * 이미지가 있는 게시글을 id 순으로 100개씩 읽으며 두 번 돈다.
+ * 1) EMBEDDING: 벡터 인덱스에 없는 게시글만 AI 서버에서 임베딩을 받아 넣음 (한 번에 하나라 서비스 요청과 AI 서버를 나눠 씀)
+ * 2) RANKING: 모든 게시글의 비슷한 게시글 목록을 인덱스로 다시 계산 (먼저 넣은 게시글도 나중 게시글을 보도록).
+ *    새로 임베딩한 게시글이 없으면 아직 계산 표시가 없는 게시글만
+ * AI 서버를 연속으로 못 쓰면 멈추고, 다시 시작하면 이미 임베딩된 게시글은 건너뛴다.
+ *
+ * 서버가 뜰 때는 RECONCILING 만 돈다: 인덱스에 없는 게시글(비정상 종료로 마지막 저장 뒤에 넣은 것이 사라진 경우)만
+ * 임베딩하고 목록을 다시 계산. 이 게시글들은 post_similarities 행이 남아 있어 GET /similar 로는 다시 잡히지 않음.
+ * AI 서버를 못 쓰면 멈추지 않고 기다렸다가 이어서 한다.
+ */
+@Component
+public class PostSimilarityBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSimilarityBackfill.class);
+
+    private static final int BATCH_SIZE = 100;
+    // AI 서버를 이만큼 연속으로 못 쓰면 중단
+    private static final int MAX_CONSECUTIVE_UNAVAILABLE = 10;
+    // 시작 시 맞추기에서 AI 서버를 못 쓰면 이만큼 쉬고 다시 시도
+    private static final long RECONCILE_RETRY_MS = 30_000L;
+
+    private final PostSimilarityRepository similarityRepo;
+    private final PostSimilarityIndexer indexer;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopRequested;
+    private volatile Progress progress = new Progress();
+
+    public PostSimilarityBackfill(PostSimilarityRepository similarityRepo, PostSimilarityIndexer indexer) {
+        this.similarityRepo = similarityRepo;
+        this.indexer = indexer;
+    }
+
+    /**
+     * 백그라운드 스레드로 시작. 이미 돌고 있으면 false
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        stopRequested = false;
+        Progress p = new Progress();
+        p.status = Progress.RUNNING;
+        p.startedAt = Instant.now();
+        p.total = similarityRepo.countPostsWithImage();
+        progress = p;
+
+        Thread t = new Thread(() -> run(p), "post-similarity-backfill");
+        t.setDaemon(true);
+        t.start();
+        return true;
+    }
+
+    /**
+     * 서버 시작 후 인덱스에 빠진 게시글만 백그라운드로 채움
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        stopRequested = false;
+        Progress p = new Progress();
+        p.status = Progress.RUNNING;
+        p.startedAt = Instant.now();
+        p.total = similarityRepo.countPostsWithImage();
+        progress = p;
+
+        Thread t = new Thread(() -> runReconcile(p), "post-similarity-reconcile");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public Progress progress() {
+        return progress.copy();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopRequested = true;
+    }
+
+    private void run(Progress p) {
+        try {
+            if (embedAll(p) && rankAll(p)) {
+                p.status = Progress.DONE;
+            } else if (Progress.RUNNING.equals(p.status)) {
+                p.status = Progress.ABORTED;
+                p.message = "stopped";
+            }
+        } catch (RuntimeException e) {
+            p.status = Progress.ABORTED;
+            p.message = e.getMessage();
+            log.warn("post similarity backfill failed", e);
+        } finally {
+            p.finishedAt = Instant.now();
+            running.set(false);
+            log.info("post similarity backfill {}: {} embedded, {} ranked, {} failed",
+                    p.status, p.embedded, p.ranked, p.failed);
+        }
+    }
+
+    private void runReconcile(Progress p) {
+        try {
+            if (reconcileAll(p)) {
+                p.status = Progress.DONE;
+            } else {
+                p.status = Progress.ABORTED;
+                p.message = "stopped";
+            }
+        } catch (RuntimeException e) {
+            p.status = Progress.ABORTED;
+            p.message = e.getMessage();
+            log.warn("post similarity reconcile failed", e);
+        } finally {
+            p.finishedAt = Instant.now();
+            running.set(false);
+            if (p.embedded > 0 || p.failed > 0) {
+                log.info("post similarity reconcile {}: {} re-indexed, {} failed", p.status, p.embedded, p.failed);
+            }
+        }
+    }
+
+    // 끝까지 갔으면 true
+    private boolean reconcileAll(Progress p) {
+        p.phase = Progress.RECONCILING;
+        p.processed = 0;
+        long afterId = 0L;
+        int unavailableInRow = 0;
+        while (!stopRequested) {
+            List<Post> posts = similarityRepo.findPostsWithImageAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            if (posts.isEmpty()) {
+                return true;
+            }
+            for (Post post : posts) {
+                if (stopRequested) {
+                    return false;
+                }
+                if (!indexer.isIndexed(post.getId(), post.getImageUrl())) {
+                    PostSimilarityIndexer.Result result = indexer.refresh(post.getId());
+                    if (result == PostSimilarityIndexer.Result.AI_UNAVAILABLE) {
+                        p.failed++;
+                        if (++unavailableInRow >= MAX_CONSECUTIVE_UNAVAILABLE) {
+                            // 이 게시글부터 다시
+                            unavailableInRow = 0;
+                            if (!sleepBeforeRetry()) {
+                                return false;
+                            }
+                            break;
+                        }
+                    } else {
+                        unavailableInRow = 0;
+                        if (result == PostSimilarityIndexer.Result.STORED) {
+                            p.embedded++;
+                            p.ranked++;
+                        }
+                    }
+                }
+                afterId = post.getId();
+                p.processed++;
+            }
+        }
+        return false;
+    }
+
+    private boolean sleepBeforeRetry() {
+        try {
+            Thread.sleep(RECONCILE_RETRY_MS);
+            return !stopRequested;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // 끝까지 갔으면 true
+    private boolean embedAll(Progress p) {
+        p.phase = Progress.EMBEDDING;
+        p.processed = 0;
+        long afterId = 0L;
+        int unavailableInRow = 0;
+        while (!stopRequested) {
+            List<Post> posts = similarityRepo.findPostsWithImageAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            if (posts.isEmpty()) {
+                return true;
+            }
+            for (Post post : posts) {
+                if (stopRequested) {
+                    return false;
+                }
+                afterId = post.getId();
+                p.processed++;
+                if (indexer.isIndexed(post.getId(), post.getImageUrl())) {
+                    continue;
+                }
+                PostSimilarityIndexer.Result result = indexer.embed(post.getId());
+                if (result == PostSimilarityIndexer.Result.STORED) {
+                    p.embedded++;
+                    unavailableInRow = 0;
+                } else if (result == PostSimilarityIndexer.Result.AI_UNAVAILABLE) {
+                    p.failed++;
+                    if (++unavailableInRow >= MAX_CONSECUTIVE_UNAVAILABLE) {
+                        p.status = Progress.ABORTED;
+                        p.message = "AI server unavailable";
+                        return false;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean rankAll(Progress p) {
+        p.phase = Progress.RANKING;
+        p.processed = 0;
+        boolean reRankAll = p.embedded > 0;
+        long afterId = 0L;
+        while (!stopRequested) {
+            List<Post> posts = similarityRepo.findPostsWithImageAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            if (posts.isEmpty()) {
+                return true;
+            }
+            for (Post post : posts) {
+                if (stopRequested) {
+                    return false;
+                }
+                afterId = post.getId();
+                p.processed++;
+                // 이번에 새로 임베딩한 게 없으면 인덱스가 그대로라 이미 계산한 게시글은 결과도 같음
+                if (!reRankAll && post.getSimilaritiesComputedAt() != null) {
+                    continue;
+                }
+                if (indexer.recompute(post.getId()) == PostSimilarityIndexer.Result.STORED) {
+                    p.ranked++;
+                }
+            }
+        }
+        return false;
+    }
+
+    // 진행 상황 응답 DTO (백필 스레드 하나만 값을 바꿈)
+    public static class Progress {
+        public static final String IDLE = "IDLE";
+        public static final String RUNNING = "RUNNING";
+        public static final String DONE = "DONE";
+        public static final String ABORTED = "ABORTED";
+
+        public static final String EMBEDDING = "EMBEDDING";
+        public static final String RANKING = "RANKING";
+        public static final String RECONCILING = "RECONCILING";
+
+        public volatile String status = IDLE;
+        public volatile String phase;    // EMBEDDING → RANKING (서버 시작 때는 RECONCILING)
+        public volatile long total;      // 시작 시점에 이미지가 있는 게시글 수 (단계마다 한 번씩 돎)
+        public volatile long processed;  // 현재 단계에서 본 게시글 수
+        public volatile long embedded;   // 새로 임베딩한 게시글
+        public volatile long ranked;     // 비슷한 게시글 목록을 저장한 게시글
+        public volatile long failed;     // AI 서버 오류
+        public volatile String message;  // 중단 사유
+        public volatile Instant startedAt;
+        public volatile Instant finishedAt;
+
+        Progress copy() {
+            Progress c = new Progress();
+            c.status = status;
+            c.phase = phase;
+            c.total = total;
+            c.processed = processed;
+            c.embedded = embedded;
+            c.ranked = ranked;
+            c.failed = failed;
+            c.message = message;
+            c.startedAt = startedAt;
+            c.finishedAt = finishedAt;
+            return c;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.campus.api;
+
+import jakarta.annotation.PreDestroy;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 게시글별 비슷한 게시글 목록(post_similarities) 계산
+ *
+ * 게시글 작성 / 이미지 변경이 커밋되면 작업 큐에 넣고, 백그라운드 스레드가 AI 서버에서 이미지 임베딩을 한 번 받아
+ * SimilarPostIndex 에 넣은 뒤, 그 인덱스에서 찾은 top-N 을 저장한다.
+ * 조회(GET /posts/{id}/similar)는 저장된 결과만 읽으므로 요청 경로에서 CLIP 추론을 하지 않는다.
+ * 큐가 가득 찼거나 AI 서버를 못 쓰면 건너뛰고, 조회 때 결과가 없으면 다시 예약되거나 백필이 채운다.
+ */
+@Component
+public class PostSimilarityIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSimilarityIndexer.class);
+
+    public enum Result { STORED, SKIPPED, AI_UNAVAILABLE }
+
+    private final PostRepository postRepo;
+    private final PostSimilarityRepository similarityRepo;
+    private final AiClient aiClient;
+    private final SimilarPostIndex index;
+    private final TransactionTemplate tx;
+    private final int topN;
+    private final ThreadPoolExecutor workers;
+
+    // 최근에 예약한 게시글 (결과가 없는 게시글 조회가 몰려도 한 번만 계산)
+    private final Cache<Long, Boolean> scheduled = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    public PostSimilarityIndexer(
+            PostRepository postRepo,
+            PostSimilarityRepository similarityRepo,
+            AiClient aiClient,
+            SimilarPostIndex index,
+            TransactionTemplate tx,
+            @Value("${posts.similar.top-n:10}") int topN,
+            @Value("${posts.similar.threads:1}") int threads,
+            @Value("${posts.similar.queue-size:1000}") int queueSize
+    ) {
+        this.postRepo = postRepo;
+        this.similarityRepo = similarityRepo;
+        this.aiClient = aiClient;
+        this.index = index;
+        this.tx = tx;
+        this.topN = topN;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread t = new Thread(r, "post-similarity-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 비슷한 게시글 계산 예약. 트랜잭션 안이면 커밋 후에 큐에 넣음 (커밋 전 데이터를 읽지 않도록)
+     */
+    public void schedule(Long postId) {
+        AfterCommit.run(() -> enqueue(postId, true));
+    }
+
+    /**
+     * 결과가 없는 게시글 조회 때 호출. 최근에 예약한 적 있으면 무시
+     */
+    public void scheduleIfNotRecent(Long postId) {
+        enqueue(postId, false);
+    }
+
+    /**
+     * 지금 스레드에서 바로 계산 (임베딩 + 비슷한 게시글 저장)
+     */
+    public Result refresh(Long postId) {
+        Result embedded = embed(postId);
+        return embedded == Result.STORED ? recompute(postId) : embedded;
+    }
+
+    /**
+     * 인덱스에 현재 이미지의 임베딩이 있게 함. 임베딩은 이미지당 한 번만
+     * (같은 이미지가 이미 인덱스에 있으면 그 벡터 재사용)
+     */
+    public Result embed(Long postId) {
+        Post post = postRepo.findById(postId).orElse(null);
+        if (post == null || post.getImageUrl() == null) {
+            index.remove(postId);
+            tx.executeWithoutResult(status -> similarityRepo.deleteByPostId(postId));
+            return Result.SKIPPED;
+        }
+        String imageUrl = post.getImageUrl();
+        if (index.contains(postId, imageUrl)) {
+            return Result.STORED;
+        }
+        float[] vector = index.vectorOfImage(imageUrl);
+        if (vector == null) {
+            vector = aiClient.embed(imageUrl);
+        }
+        if (vector == null) {
+            return Result.AI_UNAVAILABLE;
+        }
+        index.put(postId, imageUrl, vector);
+        return Result.STORED;
+    }
+
+    /**
+     * 인덱스에 있는 임베딩으로 비슷한 게시글을 다시 찾아 저장 (AI 서버 호출 없음)
+     */
+    public Result recompute(Long postId) {
+        Post post = postRepo.findById(postId).orElse(null);
+        String imageUrl = post == null ? null : post.getImageUrl();
+        float[] vector = index.contains(postId, imageUrl) ? index.vectorOfPost(postId) : null;
+        if (vector == null) {
+            return Result.SKIPPED;
+        }
+        List<Long> similarIds = index.search(vector, topN, postId);
+
+        Boolean stored = tx.execute(status -> {
+            // 그 사이 이미지가 바뀌었으면 새로 예약된 작업이 저장함
+            Post current = postRepo.findById(postId).orElse(null);
+            if (current == null || !Objects.equals(current.getImageUrl(), imageUrl)) {
+                return false;
+            }
+            similarityRepo.deleteByPostId(postId);
+            Instant now = Instant.now();
+            List<PostSimilarity> rows = new ArrayList<>(similarIds.size());
+            int position = 0;
+            for (Long id : similarIds) {
+                rows.add(new PostSimilarity(postId, id, position++, now));
+            }
+            similarityRepo.saveAll(rows);
+            // 0개여도 계산은 끝났다고 표시 (GET /similar 와 백필이 다시 계산하지 않도록)
+            similarityRepo.markComputed(postId, imageUrl, now);
+            return true;
+        });
+        return Boolean.TRUE.equals(stored) ? Result.STORED : Result.SKIPPED;
+    }
+
+    /**
+     * 게시글 삭제 커밋 후 인덱스에서 제거
+     */
+    public void unindexAfterCommit(Long postId) {
+        AfterCommit.run(() -> index.remove(postId));
+    }
+
+    public boolean isIndexed(Long postId, String imageUrl) {
+        return index.contains(postId, imageUrl);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // ===== 내부 구현 =====
+
+    private void enqueue(Long postId, boolean force) {
+        if (!force && scheduled.asMap().putIfAbsent(postId, Boolean.TRUE) != null) {
+            return;
+        }
+        scheduled.put(postId, Boolean.TRUE);
+        try {
+            workers.execute(() -> {
+                try {
+                    if (refresh(postId) == Result.AI_UNAVAILABLE) {
+                        // 다음 조회 때 다시 예약될 수 있게
+                        scheduled.invalidate(postId);
+                    }
+                } catch (RuntimeException e) {
+                    scheduled.invalidate(postId);
+                    log.warn("similar posts computation failed for post {}", postId, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            scheduled.invalidate(postId);
+            log.warn("post similarity queue full, skipping post {}", postId);
+        }
+    }
+}
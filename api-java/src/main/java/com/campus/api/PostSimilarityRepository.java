@@ -0,0 +1,52 @@
+package com.campus.api;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface PostSimilarityRepository extends JpaRepository<PostSimilarity, Long> {
+
+    // 비슷한 게시글 (순위순) - 지워진 게시글은 조인에서 빠짐
+    @Query("""
+        select p
+        from PostSimilarity s
+        join Post p on p.id = s.similarPostId
+        where s.postId = :postId
+        order by s.position asc
+        """)
+    List<Post> findSimilarPosts(@Param("postId") Long postId);
+
+    @Modifying
+    @Query("delete from PostSimilarity s where s.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+
+    // 계산 완료 표시 (벌크 update 라 @PreUpdate/updatedAt 은 안 바뀜). 그 사이 이미지가 바뀌었으면 0
+    @Modifying
+    @Query("""
+        update Post p
+        set p.similaritiesComputedAt = :computedAt
+        where p.id = :postId
+          and p.imageUrl = :imageUrl
+        """)
+    int markComputed(@Param("postId") Long postId,
+                     @Param("imageUrl") String imageUrl,
+                     @Param("computedAt") Instant computedAt);
+
+    // 백필 대상: 이미지가 있는 게시글 (id 순 키셋)
+    @Query("""
+        select p
+        from Post p
+        where p.imageUrl is not null
+          and p.id > :afterId
+        order by p.id asc
+        """)
+    List<Post> findPostsWithImageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select count(p) from Post p where p.imageUrl is not null")
+    long countPostsWithImage();
+}
@@ -0,0 +1,38 @@
+package com.campus.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * AI 추천 결과(비슷한 게시글 id 목록) 캐시
+ *
+ * 같은 게시글을 여러 사람이 열면 같은 imageUrl 로 추천 요청이 몰리므로, (imageUrl, topN) 별로 id 목록만 잠시 저장한다.
+ * 동시에 들어온 같은 요청은 AI 서버를 한 번만 호출한다.
+ * AI 서버를 못 써서 null 이 나오면 캐시하지 않는다 (회복되면 바로 다시 호출).
+ */
+@Component
+public class RecommendationCache {
+
+    private final CoalescingCache<String, List<Long>> cache;
+
+    public RecommendationCache(
+            @Value("${ai.recommend-cache.max-size:10000}") long maxSize,
+            @Value("${ai.recommend-cache.ttl-seconds:600}") long ttlSeconds
+    ) {
+        this.cache = new CoalescingCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * 캐시에 없으면 loader 로 가져옴. loader 가 null 을 주면 null 반환 (캐시 안 함)
+     */
+    public List<Long> get(String imageUrl, int topN, Supplier<List<Long>> loader) {
+        return cache.get(topN + "|" + imageUrl, key -> {
+            List<Long> ids = loader.get();
+            return ids == null ? null : List.copyOf(ids);
+        });
+    }
+}
@@ -0,0 +1,233 @@
+package com.campus.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * 로컬 디스크 BlobStore (storage.type=local, 기본. packed 모드에서는 큰 파일 저장용으로 PackedBlobStore 가 사용)
+ *
+ * key 앞 4글자로 두 단계 디렉토리를 나눈다: uploads/ab/cd/abcd1234....jpg
+ * 저장 이름이 해시(예전 파일은 UUID)라 골고루 퍼지고, 한 디렉토리의 파일 수가 수천 개 수준으로 유지된다.
+ * 원본과 축소본은 key 앞부분이 같으므로 같은 디렉토리에 모인다.
+ * 예전처럼 uploads/ 바로 아래(또는 uploads/derived/)에 있는 파일은 FlatUploadMigration 이 옮기기 전까지 그대로 읽힌다.
+ */
+@Component
+@ConditionalOnExpression("'${storage.type:local}' == 'local' or '${storage.type:local}' == 'packed'")
+public class ShardedFileBlobStore implements BlobStore {
+
+    // 예전 축소본 디렉토리 (샤딩 전)
+    static final String LEGACY_DERIVED_DIR = "derived";
+    // 쓰는 중인 임시 파일 (같은 파일시스템이어야 원자적 이동 가능)
+    static final String TEMP_DIR = ".tmp";
+
+    private final Path root;
+    private final Path tempDir;
+
+    public ShardedFileBlobStore(@Value("${storage.local.root:uploads}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tempDir = this.root.resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * key 의 샤드 경로 (key 는 검증된 것이어야 함)
+     */
+    public Path shardedPath(String key) {
+        String k = key.toLowerCase(Locale.ROOT);
+        if (k.length() < 4 || !isHex(k, 4)) {
+            return root.resolve("_").resolve(key);
+        }
+        return root.resolve(k.substring(0, 2)).resolve(k.substring(2, 4)).resolve(key);
+    }
+
+    @Override
+    public Upload newUpload() throws IOException {
+        Path temp = tempDir.resolve(UUID.randomUUID().toString());
+        OutputStream out = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW);
+        return new Upload() {
+            private boolean committed;
+
+            @Override
+            public OutputStream out() {
+                return out;
+            }
+
+            @Override
+            public void commit(String key) throws IOException {
+                requireValid(key);
+                out.close();
+                Path target = shardedPath(key);
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                committed = true;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!committed) {
+                    out.close();
+                    Files.deleteIfExists(temp);
+                }
+            }
+        };
+    }
+
+    @Override
+    public Blob get(String key) throws IOException {
+        Path file = locate(key);
+        if (file == null) {
+            return null;
+        }
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null; // 방금 삭제/이동됨
+        }
+        return new FileBlob(file, attrs.size(), attrs.lastModifiedTime().toMillis());
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return locate(key) != null;
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        if (!BlobStore.isValidKey(key)) {
+            return false;
+        }
+        boolean deleted = Files.deleteIfExists(shardedPath(key));
+        deleted |= Files.deleteIfExists(root.resolve(key));
+        deleted |= Files.deleteIfExists(root.resolve(LEGACY_DERIVED_DIR).resolve(key));
+        return deleted;
+    }
+
+    @Override
+    public int deleteByPrefix(String prefix) throws IOException {
+        requireValid(prefix);
+        int deleted = 0;
+        // 같은 prefix 는 같은 샤드 디렉토리에 있음
+        deleted += deleteMatching(shardedPath(prefix).getParent(), prefix);
+        deleted += deleteMatching(root.resolve(LEGACY_DERIVED_DIR), prefix);
+        return deleted;
+    }
+
+    // 샤드 경로 → (마이그레이션 전) 예전 평면 경로 순서로 찾기
+    private Path locate(String key) {
+        if (!BlobStore.isValidKey(key)) {
+            return null;
+        }
+        Path sharded = shardedPath(key);
+        if (Files.isRegularFile(sharded)) {
+            return sharded;
+        }
+        Path flat = root.resolve(key);
+        if (Files.isRegularFile(flat)) {
+            return flat;
+        }
+        Path legacyDerived = root.resolve(LEGACY_DERIVED_DIR).resolve(key);
+        return Files.isRegularFile(legacyDerived) ? legacyDerived : null;
+    }
+
+    private static int deleteMatching(Path dir, String prefix) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir,
+                p -> p.getFileName().toString().startsWith(prefix))) {
+            for (Path f : files) {
+                if (Files.deleteIfExists(f)) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private static void requireValid(String key) {
+        if (!BlobStore.isValidKey(key)) {
+            throw new IllegalArgumentException("invalid blob key: " + key);
+        }
+    }
+
+    private static boolean isHex(String s, int len) {
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class FileBlob implements Blob {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        FileBlob(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+                long pos = position;
+                long remaining = count;
+                while (remaining > 0) {
+                    long sent = in.transferTo(pos, remaining, target);
+                    if (sent <= 0) {
+                        break;
+                    }
+                    pos += sent;
+                    remaining -= sent;
+                }
+            }
+        }
+
+        @Override
+        public Path localPath() {
+            return path;
+        }
+    }
+}
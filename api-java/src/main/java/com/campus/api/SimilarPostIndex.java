@@ -0,0 +1,426 @@
+package com.campus.api;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 게시글 이미지 임베딩으로 만든 비슷한 게시글 검색 인덱스 (JVM 안, HNSW)
+ *
+ * 임베딩은 게시글 이미지당 한 번만 AI 서버(/embed)에서 받아 VectorStore(메모리 매핑 파일)에 넣고,
+ * HNSW 그래프로 top-K 를 찾는다. 게시글 이미지가 바뀌면 예전 노드를 삭제 표시하고 새로 넣는다.
+ * 그래프와 게시글/이미지 매핑은 주기적으로, 그리고 종료할 때 graph.bin 에 저장해서 재시작 때 다시 계산하지 않는다.
+ * 삭제 표시가 많아지면 저장할 때 살아 있는 노드만으로 새 벡터 파일(세대 번호 +1)에 다시 만든다.
+ *
+ * 검색과 저장은 읽기 락, 추가/삭제는 쓰기 락. 재구성은 락 밖에서 새 세대를 만들고
+ * 그동안 바뀐 게시글만 쓰기 락 안에서 반영한 뒤 교체한다 (재구성 중에도 검색이 멈추지 않음).
+ */
+@Component
+public class SimilarPostIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarPostIndex.class);
+
+    private static final String GRAPH_FILE = "graph.bin";
+    private static final String VECTORS_PREFIX = "vectors-";
+    private static final String VECTORS_SUFFIX = ".f32";
+    // 재구성 때 읽기 락 한 번에 옮기는 벡터 수
+    private static final int REBUILD_BATCH = 1024;
+
+    private final Path dir;
+    private final int dimensions;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 저장/재구성은 한 번에 하나만 (주기 작업과 종료 시 저장)
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private long generation;
+    private HnswIndex graph;
+    // 살아 있는 노드만
+    private final Map<Long, Integer> nodeByPost = new HashMap<>();
+    private final Map<Long, String> imageByPost = new HashMap<>();
+    private final Map<String, Long> postByImage = new HashMap<>();
+    private boolean dirty;
+
+    public SimilarPostIndex(
+            @Value("${posts.vector-index.dir:data/vector-index}") String dir,
+            @Value("${posts.vector-index.dimensions:512}") int dimensions,
+            @Value("${posts.vector-index.m:16}") int m,
+            @Value("${posts.vector-index.ef-construction:100}") int efConstruction,
+            @Value("${posts.vector-index.ef-search:64}") int efSearch
+    ) throws IOException {
+        this.dir = Path.of(dir);
+        this.dimensions = dimensions;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+
+        Files.createDirectories(this.dir);
+        load();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeByPost.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 이 게시글이 이 이미지로 들어가 있는지
+     */
+    public boolean contains(long postId, String imageUrl) {
+        lock.readLock().lock();
+        try {
+            return imageUrl != null && imageUrl.equals(imageByPost.get(postId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 이미 인덱스에 있는 이미지면 그 벡터 (AI 서버에 다시 묻지 않기 위함), 없으면 null
+     */
+    public float[] vectorOfImage(String imageUrl) {
+        lock.readLock().lock();
+        try {
+            Long postId = imageUrl == null ? null : postByImage.get(imageUrl);
+            return postId == null ? null : graph.vectors().get(nodeByPost.get(postId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 이 이미지를 쓰는 인덱스 안 게시글 (없으면 null)
+    public Long postOfImage(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return postByImage.get(imageUrl);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public float[] vectorOfPost(long postId) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodeByPost.get(postId);
+            return node == null ? null : graph.vectors().get(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 게시글 추가 (같은 게시글이 있으면 교체)
+     */
+    public void put(long postId, String imageUrl, float[] embedding) {
+        float[] vector = normalize(embedding);
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+            int node = graph.add(postId, vector);
+            nodeByPost.put(postId, node);
+            imageByPost.put(postId, imageUrl);
+            postByImage.put(imageUrl, postId);
+            dirty = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long postId) {
+        lock.writeLock().lock();
+        try {
+            if (removeLocked(postId)) {
+                dirty = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 비슷한 게시글 id (가까운 순, 최대 k 개). excludePostId 는 결과에서 뺌 (없으면 null)
+     */
+    public List<Long> search(float[] embedding, int k, Long excludePostId) {
+        float[] query = normalize(embedding);
+        lock.readLock().lock();
+        try {
+            List<HnswIndex.Scored> found = graph.search(query, k, efSearch,
+                    node -> excludePostId == null || graph.id(node) != excludePostId);
+            List<Long> ids = new ArrayList<>(found.size());
+            for (HnswIndex.Scored s : found) {
+                ids.add(graph.id(s.node));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 바뀐 게 있으면 graph.bin 저장. 삭제 표시가 4분의 1을 넘으면 먼저 새 세대로 다시 만듦
+     */
+    @Scheduled(
+            initialDelayString = "${posts.vector-index.snapshot-interval-ms:300000}",
+            fixedDelayString = "${posts.vector-index.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            boolean rebuild;
+            lock.readLock().lock();
+            try {
+                if (!dirty) {
+                    return;
+                }
+                rebuild = graph.deletedCount() > 0 && graph.deletedCount() * 4 > graph.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (rebuild) {
+                rebuild();
+            }
+            // 저장은 읽기만 하므로 검색과 같이 돌 수 있음 (추가/삭제만 기다림)
+            lock.readLock().lock();
+            try {
+                graph.vectors().force();
+                writeGraphLocked();
+                deleteOldGenerations();
+                dirty = false;
+            } finally {
+                lock.readLock().unlock();
+            }
+        } catch (IOException e) {
+            log.warn("vector index snapshot failed", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        snapshot();
+        lock.writeLock().lock();
+        try {
+            graph.vectors().close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ===== 내부 구현 =====
+
+    private boolean removeLocked(long postId) {
+        Integer node = nodeByPost.remove(postId);
+        if (node == null) {
+            return false;
+        }
+        graph.markDeleted(node);
+        String imageUrl = imageByPost.remove(postId);
+        if (imageUrl != null) {
+            postByImage.remove(imageUrl, postId);
+        }
+        return true;
+    }
+
+    // graph.bin 이 가리키는 세대의 벡터 파일을 열고 그래프 복원. 없거나 깨졌으면 빈 인덱스로 시작 (백필로 다시 채움)
+    private void load() throws IOException {
+        Path graphFile = dir.resolve(GRAPH_FILE);
+        if (Files.exists(graphFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(graphFile)))) {
+                long gen = in.readLong();
+                VectorStore vectors = new VectorStore(vectorsFile(gen), dimensions);
+                try {
+                    HnswIndex loaded = HnswIndex.read(in, vectors, efConstruction);
+                    int mapped = in.readInt();
+                    for (int i = 0; i < mapped; i++) {
+                        long postId = in.readLong();
+                        int node = in.readInt();
+                        String imageUrl = in.readUTF();
+                        nodeByPost.put(postId, node);
+                        imageByPost.put(postId, imageUrl);
+                        postByImage.put(imageUrl, postId);
+                    }
+                    generation = gen;
+                    graph = loaded;
+                    log.info("loaded vector index: {} posts (generation {})", nodeByPost.size(), gen);
+                    return;
+                } catch (IOException e) {
+                    vectors.close();
+                    throw e;
+                }
+            } catch (IOException e) {
+                log.warn("vector index snapshot unreadable, starting empty", e);
+                nodeByPost.clear();
+                imageByPost.clear();
+                postByImage.clear();
+            }
+        }
+        generation = nextGeneration();
+        Files.deleteIfExists(vectorsFile(generation));
+        graph = new HnswIndex(new VectorStore(vectorsFile(generation), dimensions), m, efConstruction);
+    }
+
+    private void writeGraphLocked() throws IOException {
+        Path temp = dir.resolve(GRAPH_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeLong(generation);
+            graph.write(out);
+            out.writeInt(nodeByPost.size());
+            for (Map.Entry<Long, Integer> e : nodeByPost.entrySet()) {
+                out.writeLong(e.getKey());
+                out.writeInt(e.getValue());
+                out.writeUTF(imageByPost.get(e.getKey()));
+            }
+        }
+        Files.move(temp, dir.resolve(GRAPH_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 살아 있는 노드만 새 세대 벡터 파일로 옮겨 그래프를 다시 만듦 (graph.bin 을 쓰기 전까지 예전 세대가 유효).
+    // 시작 시점 목록으로 락 밖에서 만들고, 그 사이 추가/교체/삭제된 게시글만 쓰기 락 안에서 맞춘 뒤 교체
+    private void rebuild() throws IOException {
+        Map<Long, Integer> before;
+        long nextGen;
+        lock.readLock().lock();
+        try {
+            before = new HashMap<>(nodeByPost);
+            nextGen = nextGeneration();
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.deleteIfExists(vectorsFile(nextGen));
+        HnswIndex rebuilt = new HnswIndex(new VectorStore(vectorsFile(nextGen), dimensions), m, efConstruction);
+        Map<Long, Integer> nodes = new HashMap<>();
+        try {
+            // 예전 노드 번호는 재사용되지 않으므로 그 사이 삭제됐어도 벡터는 그대로 읽힘
+            List<Map.Entry<Long, Integer>> entries = new ArrayList<>(before.entrySet());
+            for (int from = 0; from < entries.size(); from += REBUILD_BATCH) {
+                List<Map.Entry<Long, Integer>> batch = entries.subList(from, Math.min(entries.size(), from + REBUILD_BATCH));
+                List<float[]> vectors = new ArrayList<>(batch.size());
+                lock.readLock().lock();
+                try {
+                    for (Map.Entry<Long, Integer> e : batch) {
+                        vectors.add(graph.vectors().get(e.getValue()));
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    nodes.put(batch.get(i).getKey(), rebuilt.add(batch.get(i).getKey(), vectors.get(i)));
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (Map.Entry<Long, Integer> e : nodeByPost.entrySet()) {
+                    if (e.getValue().equals(before.get(e.getKey()))) {
+                        continue;
+                    }
+                    // 재구성 중에 추가되거나 이미지가 바뀐 게시글
+                    Integer stale = nodes.get(e.getKey());
+                    if (stale != null) {
+                        rebuilt.markDeleted(stale);
+                    }
+                    nodes.put(e.getKey(), rebuilt.add(e.getKey(), graph.vectors().get(e.getValue())));
+                }
+                // 재구성 중에 삭제된 게시글
+                nodes.entrySet().removeIf(e -> {
+                    if (nodeByPost.containsKey(e.getKey())) {
+                        return false;
+                    }
+                    rebuilt.markDeleted(e.getValue());
+                    return true;
+                });
+                log.info("rebuilt vector index: {} live of {} nodes", nodes.size(), graph.size());
+                graph.vectors().close();
+                graph = rebuilt;
+                generation = nextGen;
+                nodeByPost.clear();
+                nodeByPost.putAll(nodes);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (graph != rebuilt) {
+                rebuilt.vectors().close();
+                Files.deleteIfExists(vectorsFile(nextGen));
+            }
+            throw e;
+        }
+    }
+
+    private void deleteOldGenerations() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, VECTORS_PREFIX + "*" + VECTORS_SUFFIX)) {
+            for (Path f : files) {
+                if (!f.equals(vectorsFile(generation))) {
+                    Files.deleteIfExists(f);
+                }
+            }
+        }
+    }
+
+    private long nextGeneration() throws IOException {
+        long max = generation;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, VECTORS_PREFIX + "*" + VECTORS_SUFFIX)) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                try {
+                    max = Math.max(max, Long.parseLong(
+                            name.substring(VECTORS_PREFIX.length(), name.length() - VECTORS_SUFFIX.length())));
+                } catch (NumberFormatException ignored) {
+                    // 다른 파일
+                }
+            }
+        }
+        return max + 1;
+    }
+
+    private Path vectorsFile(long gen) {
+        return dir.resolve(VECTORS_PREFIX + gen + VECTORS_SUFFIX);
+    }
+
+    private float[] normalize(float[] v) {
+        if (v.length != dimensions) {
+            throw new IllegalArgumentException("expected " + dimensions + " dimensions, got " + v.length);
+        }
+        double norm = 0;
+        for (float x : v) {
+            norm += x * x;
+        }
+        float[] out = new float[v.length];
+        float scale = norm == 0 ? 0f : (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < v.length; i++) {
+            out[i] = v[i] * scale;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,60 @@
+package com.campus.api;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * 업로드 파일(내용 해시 이름) 참조 카운트
+ *
+ * name 은 "sha256hex.ext" 로, 같은 내용은 한 번만 저장된다.
+ * 게시글/프로필이 URL 을 가리키면 +1, 바꾸거나 삭제하면 -1.
+ * ref_count 가 0 이고 마지막 업로드 후 유예 시간이 지난 파일은 OrphanBlobCleaner 가 지운다.
+ */
+@Entity
+@Table(
+        name = "stored_blobs",
+        indexes = {
+                // 정리 대상(참조 없음 + 오래된 업로드) 조회
+                @Index(name = "idx_stored_blobs_orphan", columnList = "ref_count, last_uploaded_at")
+        }
+)
+public class StoredBlob {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount = 0;
+
+    // 같은 내용이 다시 올라오면 갱신 (방금 올린 파일이 정리되지 않도록)
+    @Column(name = "last_uploaded_at", nullable = false)
+    private Instant lastUploadedAt;
+
+    // ===== 생성자 =====
+    protected StoredBlob() {
+        // JPA 기본 생성자
+    }
+
+    // ===== Getter =====
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public Instant getLastUploadedAt() {
+        return lastUploadedAt;
+    }
+}
@@ -0,0 +1,53 @@
+package com.campus.api;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    // 업로드 기록 (이미 있는 내용이면 업로드 시각만 갱신)
+    @Modifying
+    @Query(value = """
+        insert into stored_blobs (name, size, ref_count, last_uploaded_at)
+        values (:name, :size, 0, :now)
+        on duplicate key update last_uploaded_at = :now
+        """, nativeQuery = true)
+    int registerUpload(@Param("name") String name, @Param("size") long size, @Param("now") Instant now);
+
+    // 참조 수 증감 (관리 대상이 아닌 예전 파일이면 0 반환)
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = b.refCount + :delta where b.name = :name")
+    int addRefCount(@Param("name") String name, @Param("delta") int delta);
+
+    // 기록이 없는 파일(예전 파일, 이미 정리된 기록)을 참조 수와 함께 등록
+    @Modifying
+    @Query(value = """
+        insert into stored_blobs (name, size, ref_count, last_uploaded_at)
+        values (:name, :size, :delta, :now)
+        on duplicate key update ref_count = ref_count + :delta
+        """, nativeQuery = true)
+    int registerReferenced(@Param("name") String name, @Param("size") long size,
+                           @Param("delta") int delta, @Param("now") Instant now);
+
+    // 참조 없고 cutoff 이전에 마지막으로 올라온 파일
+    @Query("""
+        select b.name
+        from StoredBlob b
+        where b.refCount <= 0 and b.lastUploadedAt < :cutoff
+        """)
+    List<String> findOrphanNames(@Param("cutoff") Instant cutoff, Pageable pageable);
+
+    // 그 사이에 다시 참조/업로드되지 않았을 때만 삭제
+    @Modifying
+    @Query("""
+        delete from StoredBlob b
+        where b.name = :name and b.refCount <= 0 and b.lastUploadedAt < :cutoff
+        """)
+    int deleteIfOrphan(@Param("name") String name, @Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,363 @@
+package com.campus.api;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 업로드 이미지 축소본(썸네일) 생성
+ *
+ * 업로드 요청은 원본 저장까지만 하고, 축소본은 크기가 정해진 작업 큐 + 고정 스레드 풀에서 만든다.
+ * 원본은 한 번만 디코딩하고 큰 폭부터 차례로 줄여 가며 폭별 JPEG 을 쓴다 (예: 1200 → 600 → 200).
+ * 원본이 그 폭보다 작으면 원본 크기 그대로(EXIF 회전만 적용) 그 폭의 축소본으로 저장한다.
+ * 디코딩 전에 헤더의 가로×세로를 보고 픽셀 수 상한을 넘으면 건너뛰고(작은 파일이 거대한 크기를 선언하면 수 GB 할당),
+ * 큰 사진은 제일 큰 축소본 폭 근처까지 솎아 읽는다(subsampling). 예: 4032px 폰 사진 → 1344px 로 디코딩.
+ * 큐가 가득 차면 그 이미지는 건너뛴다. 축소본이 없으면 GET /files/{name}?w= 가 원본을 내려주므로 기능상 문제 없음.
+ */
+@Component
+public class ThumbnailGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailGenerator.class);
+
+    // ImageIO 로 읽을 수 있는 원본 확장자
+    private static final String[] SOURCE_EXTENSIONS = {".jpg", ".jpeg", ".png", ".gif", ".bmp"};
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final UploadStorage storage;
+    private final int[] widths; // 오름차순
+    // 이보다 픽셀이 많은 원본은 디코딩하지 않음
+    private final long maxPixels;
+    private final ThreadPoolExecutor workers;
+
+    // 최근에 생성을 시도한 이미지 (같은 이미지를 반복해서 디코딩하지 않도록)
+    private final Cache<String, Boolean> attempted = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    public ThumbnailGenerator(
+            UploadStorage storage,
+            @Value("${uploads.thumbnails.widths:200,600,1200}") int[] widths,
+            @Value("${uploads.thumbnails.threads:2}") int threads,
+            @Value("${uploads.thumbnails.queue-size:200}") int queueSize,
+            @Value("${uploads.thumbnails.max-pixels:50000000}") long maxPixels
+    ) {
+        this.storage = storage;
+        this.widths = Arrays.stream(widths).sorted().distinct().toArray();
+        this.maxPixels = maxPixels;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread t = new Thread(r, "thumbnail-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    /**
+     * 축소본 생성 예약 (바로 반환). 업로드 직후, 그리고 축소본이 없는 ?w= 요청 때 호출됨
+     */
+    public void submit(String storedName) {
+        if (!isSource(storedName) || attempted.asMap().putIfAbsent(storedName, Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            workers.execute(() -> generate(storedName));
+        } catch (RejectedExecutionException e) {
+            // 다음 요청 때 다시 시도할 수 있게 표시 해제
+            attempted.invalidate(storedName);
+            log.warn("thumbnail queue full, skipping {}", storedName);
+        }
+    }
+
+    /**
+     * 요청 폭 이상인 것 중 가장 작은 축소본 폭 (요청이 제일 큰 폭보다 크면 제일 큰 폭)
+     */
+    public int pickWidth(int requested) {
+        for (int w : widths) {
+            if (w >= requested) {
+                return w;
+            }
+        }
+        return widths[widths.length - 1];
+    }
+
+    public boolean isSource(String storedName) {
+        for (String ext : SOURCE_EXTENSIONS) {
+            if (storedName.endsWith(ext)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // ===== 내부 구현 =====
+
+    private void generate(String storedName) {
+        // 같은 내용이 다시 올라온 경우 이미 만들어 둔 축소본 재사용
+        boolean missing = Arrays.stream(widths)
+                .anyMatch(w -> !storage.hasDerivative(storedName, w));
+        if (!missing) {
+            return;
+        }
+
+        try {
+            BlobStore.Blob source = storage.open(storedName);
+            if (source == null) {
+                return;
+            }
+            BufferedImage image = read(source, storedName);
+            if (image == null) {
+                return;
+            }
+            // 큰 폭부터 줄이면서 직전 결과를 다음 입력으로 사용.
+            // 원본이 그 폭 이하면 줄이지 않고 그대로 저장 (축소본이 없으면 ?w= 요청이 매번 원본 + 짧은 캐시 + 재시도가 됨)
+            for (int i = widths.length - 1; i >= 0; i--) {
+                int width = widths[i];
+                if (image.getWidth() > width) {
+                    image = scale(image, width);
+                }
+                write(image, storedName, width);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("thumbnail generation failed for {}", storedName, e);
+        }
+    }
+
+    // 원본 디코딩(필요하면 솎아서) + EXIF 회전 적용 + 알파 제거(JPEG 출력용). 너무 크거나 못 읽는 형식이면 null
+    private BufferedImage read(BlobStore.Blob source, String storedName) throws IOException {
+        Path local = source.localPath();
+        try (InputStream raw = local == null ? source.openStream() : null;
+             ImageInputStream in = ImageIO.createImageInputStream(local != null ? local.toFile() : raw)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, false);
+                int w = reader.getWidth(0);
+                int h = reader.getHeight(0);
+                if ((long) w * h > maxPixels) {
+                    log.warn("skipping thumbnails for {}: {}x{} exceeds {} pixels", storedName, w, h, maxPixels);
+                    return null;
+                }
+                int orientation = exifOrientation(reader);
+                BufferedImage decoded = reader.read(0, readParam(reader, orientation >= 5 ? h : w));
+                return toRgb(orient(decoded, orientation));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // 회전 후 폭이 제일 큰 축소본 폭 이상으로 남는 만큼만 솎고, 가능하면 바로 INT_RGB 로 디코딩 (toRgb 복사 생략)
+    private ImageReadParam readParam(ImageReader reader, int orientedWidth) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        int factor = Math.max(1, orientedWidth / widths[widths.length - 1]);
+        if (factor > 1) {
+            param.setSourceSubsampling(factor, factor, 0, 0);
+        }
+        for (Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0); types.hasNext(); ) {
+            ImageTypeSpecifier type = types.next();
+            if (type.getBufferedImageType() == BufferedImage.TYPE_INT_RGB) {
+                param.setDestinationType(type);
+                break;
+            }
+        }
+        return param;
+    }
+
+    private static BufferedImage toRgb(BufferedImage src) {
+        if (src.getType() == BufferedImage.TYPE_INT_RGB) {
+            return src;
+        }
+        BufferedImage rgb = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, src.getWidth(), src.getHeight());
+            g.drawImage(src, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    // 절반씩 줄이다가 마지막에 목표 폭으로 (한 번에 크게 줄이면 bilinear 도 계단 현상이 생김)
+    private static BufferedImage scale(BufferedImage src, int targetWidth) {
+        BufferedImage current = src;
+        while (current.getWidth() / 2 >= targetWidth) {
+            current = resize(current, current.getWidth() / 2);
+        }
+        return current.getWidth() == targetWidth ? current : resize(current, targetWidth);
+    }
+
+    private static BufferedImage resize(BufferedImage src, int width) {
+        int height = Math.max(1, (int) Math.round((double) src.getHeight() * width / src.getWidth()));
+        BufferedImage dst = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(src, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
+    // 다 쓴 뒤에 저장 이름을 붙임 (반쯤 쓴 축소본이 서빙되지 않도록)
+    private void write(BufferedImage image, String storedName, int width) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (BlobStore.Upload upload = storage.newDerivativeUpload()) {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(upload.out())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            storage.saveDerivative(upload, storedName, width);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // ===== EXIF 회전 =====
+    // 휴대폰 사진은 픽셀은 가로로 두고 EXIF Orientation 으로 회전을 표시함.
+    // 브라우저는 원본에 이를 적용하지만 축소본에는 EXIF 가 없으므로 픽셀을 직접 돌려 둔다.
+
+    private static int exifOrientation(ImageReader reader) {
+        IIOMetadata metadata;
+        try {
+            metadata = reader.getImageMetadata(0);
+        } catch (IOException | RuntimeException e) {
+            // 메타데이터가 표준과 다르게 생긴 파일도 픽셀은 읽히므로 회전 없이 진행
+            return 1;
+        }
+        if (metadata == null || !"javax_imageio_jpeg_image_1.0".equals(metadata.getNativeMetadataFormatName())) {
+            return 1;
+        }
+        Node root = metadata.getAsTree("javax_imageio_jpeg_image_1.0");
+        for (Node seq = root.getFirstChild(); seq != null; seq = seq.getNextSibling()) {
+            if (!"markerSequence".equals(seq.getNodeName())) {
+                continue;
+            }
+            for (Node m = seq.getFirstChild(); m != null; m = m.getNextSibling()) {
+                Node tag = m.getAttributes() == null ? null : m.getAttributes().getNamedItem("MarkerTag");
+                if (tag != null && "225".equals(tag.getNodeValue()) // APP1
+                        && m instanceof javax.imageio.metadata.IIOMetadataNode node
+                        && node.getUserObject() instanceof byte[] data) {
+                    int o = parseOrientation(data);
+                    if (o > 0) {
+                        return o;
+                    }
+                }
+            }
+        }
+        return 1;
+    }
+
+    // "Exif\0\0" + TIFF 헤더에서 0x0112(Orientation) 태그 값
+    private static int parseOrientation(byte[] d) {
+        if (d.length < 14 || d[0] != 'E' || d[1] != 'x' || d[2] != 'i' || d[3] != 'f') {
+            return -1;
+        }
+        int tiff = 6;
+        boolean le = d[tiff] == 'I';
+        int ifd = tiff + readInt(d, tiff + 4, le);
+        if (ifd + 2 > d.length) {
+            return -1;
+        }
+        int entries = readShort(d, ifd, le);
+        for (int i = 0; i < entries; i++) {
+            int e = ifd + 2 + i * 12;
+            if (e + 12 > d.length) {
+                return -1;
+            }
+            if (readShort(d, e, le) == 0x0112) {
+                return readShort(d, e + 8, le);
+            }
+        }
+        return -1;
+    }
+
+    private static int readShort(byte[] d, int off, boolean le) {
+        return le ? (d[off] & 0xff) | (d[off + 1] & 0xff) << 8
+                : (d[off] & 0xff) << 8 | (d[off + 1] & 0xff);
+    }
+
+    private static int readInt(byte[] d, int off, boolean le) {
+        return le ? readShort(d, off, true) | readShort(d, off + 2, true) << 16
+                : readShort(d, off, false) << 16 | readShort(d, off + 2, false);
+    }
+
+    private static BufferedImage orient(BufferedImage src, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return src;
+        }
+        int w = src.getWidth();
+        int h = src.getHeight();
+        boolean swap = orientation >= 5;
+        AffineTransform t = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { t.translate(w, 0); t.scale(-1, 1); }
+            case 3 -> { t.translate(w, h); t.rotate(Math.PI); }
+            case 4 -> { t.translate(0, h); t.scale(1, -1); }
+            case 5 -> { t.rotate(-Math.PI / 2); t.scale(-1, 1); }
+            case 6 -> { t.translate(h, 0); t.rotate(Math.PI / 2); }
+            case 7 -> { t.translate(h, w); t.rotate(Math.PI / 2); t.scale(-1, 1); }
+            case 8 -> { t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+            default -> { }
+        }
+        BufferedImage dst = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, dst.getWidth(), dst.getHeight());
+            g.drawImage(src, t, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+}
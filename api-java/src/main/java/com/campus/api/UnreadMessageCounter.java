@@ -0,0 +1,125 @@
+package com.campus.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 사용자별 안 읽은 쪽지 수
+ *
+ * users.unread_message_count 컬럼에 영속화하고, 메모리 맵에 올려 두고 읽는다.
+ * GET /messages/unread-count 는 메모리 값만 보므로 messages 테이블을 COUNT 하지 않는다.
+ * 쪽지 전송 시 +1, 읽음 처리 시 -n. 어긋난 값은 주기적인 보정 작업이 실제 값으로 맞춘다.
+ */
+@Component
+public class UnreadMessageCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(UnreadMessageCounter.class);
+
+    private static final int CHANGE_STRIPES = 64;
+
+    private final UserRepository userRepo;
+    private final TransactionTemplate tx;
+    // 보정 한 트랜잭션이 맡는 사용자 id 범위 (잠그는 users 행 수의 상한)
+    private final int reconcileBatchSize;
+
+    // userId -> 안 읽은 쪽지 수 (한 번 조회된 사용자만 올라옴)
+    private final ConcurrentHashMap<Long, AtomicLong> counts = new ConcurrentHashMap<>();
+    // 사용자 id 해시 구간별 메모리 반영 횟수 (DB 에서 읽는 사이에 증감이 지나갔는지 확인용)
+    private final AtomicLongArray changes = new AtomicLongArray(CHANGE_STRIPES);
+
+    public UnreadMessageCounter(
+            UserRepository userRepo,
+            TransactionTemplate tx,
+            @Value("${messages.unread-count.reconcile-batch-size:500}") int reconcileBatchSize
+    ) {
+        this.userRepo = userRepo;
+        this.tx = tx;
+        this.reconcileBatchSize = reconcileBatchSize;
+    }
+
+    /**
+     * 없는 사용자면 null
+     */
+    public Long get(Long userId) {
+        AtomicLong cached = counts.get(userId);
+        if (cached != null) {
+            return cached.get();
+        }
+        // DB 조회는 맵 잠금 밖에서 (computeIfAbsent 안에서 하면 같은 bin 의 다른 사용자까지 막히고 가상 스레드가 고정됨)
+        int stripe = stripe(userId);
+        long seen = changes.get(stripe);
+        Long loaded = userRepo.findUnreadMessageCountById(userId).orElse(null);
+        if (loaded == null) {
+            return null;
+        }
+        AtomicLong mine = new AtomicLong(loaded);
+        AtomicLong existing = counts.putIfAbsent(userId, mine);
+        if (existing != null) {
+            return existing.get();
+        }
+        // 읽는 사이에 증감이 반영됐으면(맵에 없어서 건너뛰었을 수 있음) 올린 값을 버리고 다음 조회 때 다시 읽음
+        if (changes.get(stripe) != seen) {
+            counts.remove(userId, mine);
+        }
+        return loaded;
+    }
+
+    /**
+     * 컬럼은 호출한 트랜잭션 안에서 원자적으로 증감하고,
+     * 메모리 값은 커밋된 뒤에 반영 (롤백되면 반영 안 함)
+     */
+    public void add(Long userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        userRepo.addUnreadMessageCount(userId, delta);
+
+        AfterCommit.run(() -> applyInMemory(userId, delta));
+    }
+
+    private void applyInMemory(Long userId, long delta) {
+        changes.incrementAndGet(stripe(userId));
+        // 아직 메모리에 없는 사용자는 다음 조회 때 컬럼에서 읽어옴
+        counts.computeIfPresent(userId, (id, count) -> {
+            count.addAndGet(delta);
+            return count;
+        });
+    }
+
+    /**
+     * 컬럼을 실제 안 읽은 쪽지 수로 보정하고 메모리 값은 비워서 다시 읽게 함.
+     * id 범위별로 짧은 트랜잭션을 나눠서, 쪽지 전송의 addUnreadMessageCount 가 전체 보정을 기다리지 않게 함
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${messages.unread-count.reconcile-interval-ms:600000}",
+            fixedDelayString = "${messages.unread-count.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        long maxId = userRepo.findMaxId();
+        int fixed = 0;
+        for (long afterId = 0; afterId < maxId; afterId += reconcileBatchSize) {
+            long from = afterId;
+            Integer n = tx.execute(status ->
+                    userRepo.reconcileUnreadMessageCounts(from, from + reconcileBatchSize));
+            fixed += n == null ? 0 : n;
+        }
+        counts.clear();
+        if (fixed > 0) {
+            log.info("reconciled unread_message_count on {} users", fixed);
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return Math.floorMod(userId.hashCode(), CHANGE_STRIPES);
+    }
+}
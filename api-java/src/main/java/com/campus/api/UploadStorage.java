@@ -0,0 +1,194 @@
+package com.campus.api;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 업로드 파일 저장소 (내용 주소 방식)
+ *
+ * 받는 동안 SHA-256 을 같이 계산해서(두 번 읽지 않음) "해시.확장자" 이름으로 저장한다.
+ * 같은 사진을 여러 번 올려도 디스크에는 한 벌만 남고, stored_blobs 에 업로드 기록을 남긴다.
+ * 저장/참조/정리는 stored_blobs 행 잠금으로 순서를 맞춘다 (JVM 락 없이, 서버가 여러 대여도).
+ * 정리는 행을 조건부로 지운 트랜잭션 안에서 파일까지 지우므로, 같은 이름의 업로드 기록이나 참조 증가는
+ * 그 커밋을 기다렸다가 행이 없어진 것을 보고 파일을 다시 쓰거나(업로드) 실패한다(참조).
+ * 실제 바이트는 BlobStore 에 둔다.
+ */
+@Component
+public class UploadStorage {
+
+    // 저장 이름: sha256 hex + 선택적 확장자
+    private static final Pattern STORED_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,10})?");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+
+    private final BlobStore blobs;
+    private final StoredBlobRepository blobRepo;
+    private final TransactionTemplate tx;
+
+    public UploadStorage(BlobStore blobs, StoredBlobRepository blobRepo, TransactionTemplate tx) {
+        this.blobs = blobs;
+        this.blobRepo = blobRepo;
+        this.tx = tx;
+    }
+
+    /**
+     * 내용을 저장하고 저장 이름을 돌려줌 (이미 있는 내용이면 기존 파일 재사용)
+     */
+    public String store(InputStream content, String originalFilename) throws IOException {
+        MessageDigest sha256 = sha256();
+        try (BlobStore.Upload upload = blobs.newUpload()) {
+            long size;
+            try (DigestInputStream in = new DigestInputStream(content, sha256)) {
+                size = in.transferTo(upload.out());
+            }
+            String name = HexFormat.of().formatHex(sha256.digest()) + extensionOf(originalFilename);
+
+            // 정리 중인 같은 이름이면 그 커밋(파일 삭제 포함)까지 기다린 뒤 새 기록을 남기고 파일을 다시 씀
+            tx.executeWithoutResult(status -> blobRepo.registerUpload(name, size, Instant.now()));
+            if (!blobs.exists(name)) {
+                upload.commit(name);
+            }
+            return name;
+        }
+    }
+
+    /**
+     * 저장된 파일. 이름 형식이 잘못됐거나 없으면 null
+     */
+    public BlobStore.Blob open(String filename) throws IOException {
+        return blobs.get(filename);
+    }
+
+    /**
+     * 폭 width 축소본 저장 이름
+     */
+    public static String derivativeName(String storedName, int width) {
+        return storedName + ".w" + width + ".jpg";
+    }
+
+    /**
+     * 만들어진 축소본. 저장 이름 형식이 아니거나 아직 없으면 null
+     */
+    public BlobStore.Blob openDerivative(String storedName, int width) throws IOException {
+        if (!STORED_NAME.matcher(storedName).matches()) {
+            return null;
+        }
+        return blobs.get(derivativeName(storedName, width));
+    }
+
+    public boolean hasDerivative(String storedName, int width) {
+        return blobs.exists(derivativeName(storedName, width));
+    }
+
+    /**
+     * 축소본 쓰기 시작 (ThumbnailGenerator). commit 은 saveDerivative 로
+     */
+    public BlobStore.Upload newDerivativeUpload() throws IOException {
+        return blobs.newUpload();
+    }
+
+    public void saveDerivative(BlobStore.Upload upload, String storedName, int width) throws IOException {
+        upload.commit(derivativeName(storedName, width));
+    }
+
+    /**
+     * 참조 수 증가 (호출한 트랜잭션 안에서, 행 잠금은 그 트랜잭션 끝까지).
+     * 정리 중인 행이면 UPDATE 가 정리 커밋을 기다리고, 그때는 파일도 지워져 있으므로 없는 파일을 가리키는 일이 없다.
+     * 기록이 없으면 파일이 남아 있을 때만 새로 등록하고, 파일도 없으면 false
+     */
+    public boolean addReferences(String name, int delta) {
+        try {
+            if (blobRepo.addRefCount(name, delta) > 0) {
+                return true;
+            }
+            BlobStore.Blob blob = blobs.get(name);
+            if (blob == null) {
+                return false;
+            }
+            blobRepo.registerReferenced(name, blob.size(), delta, Instant.now());
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 참조 없는 파일 삭제 (그 사이 다시 참조/업로드됐으면 그대로 둠).
+     * 조건부 DELETE 로 행을 잠근 채 파일을 지우고 커밋. 축소본 먼저, 원본은 마지막에 지워서
+     * 파일 삭제가 실패하면 롤백돼도 원본과 기록이 같이 남음
+     */
+    public boolean deleteIfOrphan(String name, Instant cutoff) {
+        Boolean deleted = tx.execute(status -> {
+            if (blobRepo.deleteIfOrphan(name, cutoff) == 0) {
+                return false;
+            }
+            try {
+                blobs.deleteByPrefix(name + ".w");
+                blobs.delete(name);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    /**
+     * 우리 서버가 내려준 업로드 URL(.../files/{저장 이름})이면 저장 이름, 아니면 null
+     */
+    public static String storedNameOf(String url) {
+        if (url == null) {
+            return null;
+        }
+        int idx = url.lastIndexOf("/files/");
+        if (idx == -1) {
+            return null;
+        }
+        String name = url.substring(idx + "/files/".length());
+        int query = name.indexOf('?');
+        if (query != -1) {
+            name = name.substring(0, query);
+        }
+        return STORED_NAME.matcher(name).matches() ? name : null;
+    }
+
+    /**
+     * 목록 화면용 축소본 URL (우리 서버 업로드가 아니면 원래 URL 그대로)
+     */
+    public static String variantUrl(String url, int width) {
+        if (storedNameOf(url) == null) {
+            return url;
+        }
+        return url + (url.indexOf('?') == -1 ? "?w=" : "&w=") + width;
+    }
+
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null) {
+            return "";
+        }
+        int dot = originalFilename.lastIndexOf('.');
+        if (dot == -1) {
+            return "";
+        }
+        String ext = originalFilename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(ext).matches() ? "." + ext : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.campus.api;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.time.Instant;
 
 @Entity
+// 프로필 수정 시 바뀐 컬럼만 UPDATE → unread_message_count 를 옛 값으로 덮어쓰지 않음
+@DynamicUpdate
 @Table(name = "users")
 public class User {
 
@@ -35,6 +39,10 @@ public class User {
     @Column(length = 500)
     private String profileImageUrl;
 
+    // 안 읽은 쪽지 수 (UnreadMessageCounter 가 증감, 주기적으로 실제 값과 보정)
+    @Column(nullable = false)
+    private long unreadMessageCount = 0;
+
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -119,6 +127,10 @@ public class User {
         this.profileImageUrl = profileImageUrl;
     }
 
+    public long getUnreadMessageCount() {
+        return unreadMessageCount;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
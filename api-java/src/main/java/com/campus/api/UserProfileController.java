@@ -1,6 +1,7 @@
 package com.campus.api;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -9,9 +10,15 @@ import org.springframework.web.server.ResponseStatusException;
 public class UserProfileController {
 
     private final UserRepository userRepo;
+    private final AuthorSummaryCache authorCache;
+    private final BlobReferences blobRefs;
 
-    public UserProfileController(UserRepository userRepo) {
+    public UserProfileController(UserRepository userRepo,
+                                 AuthorSummaryCache authorCache,
+                                 BlobReferences blobRefs) {
         this.userRepo = userRepo;
+        this.authorCache = authorCache;
+        this.blobRefs = blobRefs;
     }
 
     // ==============================
@@ -32,6 +39,7 @@ public class UserProfileController {
     // 2) 내 프로필 수정
     // ==============================
     @PutMapping("/me")
+    @Transactional
     public ProfileResponse updateProfile(
             @RequestHeader("X-USER-ID") Long userId,
             @RequestBody ProfileUpdateRequest req
@@ -47,6 +55,7 @@ public class UserProfileController {
             u.setBio(req.bio);
         }
         if (req.profileImageUrl != null) {
+            blobRefs.replace(BlobReferences.urls(u.getProfileImageUrl()), BlobReferences.urls(req.profileImageUrl));
             u.setProfileImageUrl(req.profileImageUrl);
         }
         if (req.personalEmail != null) {
@@ -54,6 +63,8 @@ public class UserProfileController {
         }
 
         User saved = userRepo.save(u);
+        // 닉네임/프로필 이미지가 바뀌었을 수 있으니 작성자 캐시에서 제거
+        authorCache.invalidate(userId);
         return ProfileResponse.from(saved);
     }
 
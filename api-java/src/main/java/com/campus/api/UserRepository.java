@@ -1,7 +1,12 @@
 package com.campus.api;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -11,4 +16,44 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // 로그인용으로 이메일로 유저 찾기
     Optional<User> findByEmail(String email);
+
+    // 작성자 표시용 (AuthorSummaryCache 로더) - 필요한 컬럼만 조회
+    @Query("""
+        select new com.campus.api.AuthorSummary(u.id, u.nickname, u.profileImageUrl)
+        from User u
+        where u.id = :id
+        """)
+    Optional<AuthorSummary> findAuthorSummaryById(@Param("id") Long id);
+
+    @Query("""
+        select new com.campus.api.AuthorSummary(u.id, u.nickname, u.profileImageUrl)
+        from User u
+        where u.id in :ids
+        """)
+    List<AuthorSummary> findAuthorSummariesByIdIn(@Param("ids") Collection<? extends Long> ids);
+
+    // 안 읽은 쪽지 수 (UnreadMessageCounter 로더)
+    @Query("select u.unreadMessageCount from User u where u.id = :id")
+    Optional<Long> findUnreadMessageCountById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update User u set u.unreadMessageCount = u.unreadMessageCount + :delta where u.id = :id")
+    int addUnreadMessageCount(@Param("id") Long id, @Param("delta") long delta);
+
+    @Query("select coalesce(max(u.id), 0) from User u")
+    long findMaxId();
+
+    // id 가 (afterId, toId] 인 사용자만 어긋난 unread_message_count 를 실제 안 읽은 쪽지 수로 보정 (보정된 사용자 수 반환).
+    // 범위가 테이블의 큰 몫이면 옵티마이저가 PK 전체 스캔을 골라 범위 밖 행까지 잠그므로 PK 범위 스캔을 강제
+    @Modifying
+    @Query(value = """
+        update users u force index (primary)
+        set u.unread_message_count =
+            (select count(*) from messages m where m.receiver_id = u.id and m.is_read = false)
+        where u.id > :afterId
+          and u.id <= :toId
+          and u.unread_message_count <>
+            (select count(*) from messages m where m.receiver_id = u.id and m.is_read = false)
+        """, nativeQuery = true)
+    int reconcileUnreadMessageCounts(@Param("afterId") long afterId, @Param("toId") long toId);
 }
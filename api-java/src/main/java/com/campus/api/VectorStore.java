@@ -0,0 +1,102 @@
+package com.campus.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 고정 차원 float 벡터를 파일에 slot 번호 순서로 저장 (메모리 매핑, 힙 밖)
+ *
+ * slot i 는 파일의 i * dimensions * 4 바이트 위치. 파일은 CHUNK_VECTORS 개 단위로 늘리고 조각별로 매핑한다.
+ * 스레드 안전하지 않음 (SimilarPostIndex 가 읽기/쓰기 락으로 감쌈).
+ */
+public class VectorStore implements Closeable {
+
+    // 매핑 한 조각에 들어가는 벡터 수 (512차원이면 32MB)
+    private static final int CHUNK_VECTORS = 16384;
+
+    private final int dimensions;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> mapped = new ArrayList<>();
+    private final List<FloatBuffer> chunks = new ArrayList<>();
+    // dot() 계산용 (검색은 여러 스레드가 동시에 함)
+    private final ThreadLocal<float[]> scratch;
+
+    public VectorStore(Path file, int dimensions) throws IOException {
+        this.dimensions = dimensions;
+        this.scratch = ThreadLocal.withInitial(() -> new float[dimensions]);
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long chunkBytes = chunkBytes();
+        long existing = (channel.size() + chunkBytes - 1) / chunkBytes;
+        for (int i = 0; i < existing; i++) {
+            mapChunk();
+        }
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public void set(int slot, float[] vector) throws IOException {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        while (slot / CHUNK_VECTORS >= chunks.size()) {
+            mapChunk();
+        }
+        chunks.get(slot / CHUNK_VECTORS).put(base(slot), vector);
+    }
+
+    public float[] get(int slot) {
+        float[] v = new float[dimensions];
+        chunks.get(slot / CHUNK_VECTORS).get(base(slot), v);
+        return v;
+    }
+
+    // 내적 (정규화된 벡터면 코사인 유사도)
+    public float dot(int slot, float[] query) {
+        // 요소마다 버퍼에서 읽는 것보다 한 번에 복사한 뒤 배열끼리 곱하는 쪽이 훨씬 빠름
+        float[] v = scratch.get();
+        chunks.get(slot / CHUNK_VECTORS).get(base(slot), v);
+        float sum = 0f;
+        for (int i = 0; i < dimensions; i++) {
+            sum += v[i] * query[i];
+        }
+        return sum;
+    }
+
+    public void force() {
+        for (MappedByteBuffer m : mapped) {
+            m.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private int base(int slot) {
+        return (slot % CHUNK_VECTORS) * dimensions;
+    }
+
+    private long chunkBytes() {
+        return (long) CHUNK_VECTORS * dimensions * Float.BYTES;
+    }
+
+    // 파일 끝을 넘는 READ_WRITE 매핑은 파일을 그만큼 늘림
+    private void mapChunk() throws IOException {
+        MappedByteBuffer m = channel.map(FileChannel.MapMode.READ_WRITE, mapped.size() * chunkBytes(), chunkBytes());
+        mapped.add(m);
+        chunks.add(m.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer());
+    }
+}
@@ -0,0 +1,108 @@
+package com.campus.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 가상 스레드 고정(pinning) 감시 (spring.threads.virtual.enabled=true 일 때만)
+ *
+ * 가상 스레드가 synchronized 블록이나 네이티브 호출 안에서 막히면 캐리어(플랫폼) 스레드까지 같이 묶인다.
+ * JFR jdk.VirtualThreadPinned 이벤트를 앱 안에서 구독해서, threshold 이상 고정된 경우
+ * jvm.threads.virtual.pinned 카운터를 올리고 처음 보는 호출 위치면 스택을 로그로 남긴다.
+ * (우리 코드의 synchronized 는 빌드의 checkNoSynchronized 가 막고, 이건 라이브러리 쪽을 잡기 위함)
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Counter pinned;
+    private final Duration threshold;
+    // 이미 로그로 남긴 호출 위치 (같은 스택을 반복해서 찍지 않도록)
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            MeterRegistry meters,
+            @Value("${virtual-threads.pinned-threshold-ms:20}") long thresholdMs
+    ) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("가상 스레드가 캐리어 스레드에 고정된 횟수 (threshold 이상)")
+                .register(meters);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        String where = frames(event.getStackTrace());
+        if (reported.size() < 1000 && reported.add(where)) {
+            log.warn("virtual thread pinned for {} ms\n{}", event.getDuration().toMillis(), where);
+        }
+    }
+
+    private static String frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "(no stack trace)";
+        }
+        // 위쪽은 park / 소켓 대기 같은 JDK 내부 프레임이라, 잡고 있는 쪽(드라이버 등)이 보이도록 건너뜀
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        int from = 0;
+        while (from < frames.size() && isJdkFrame(frames.get(from))) {
+            from++;
+        }
+        if (from == frames.size()) {
+            from = 0;
+        }
+        return frames.subList(from, frames.size()).stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::frame)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static boolean isJdkFrame(RecordedFrame f) {
+        String type = f.getMethod().getType().getName();
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+
+    private static String frame(RecordedFrame f) {
+        return "    at " + f.getMethod().getType().getName() + "." + f.getMethod().getName()
+                + " line " + f.getLineNumber();
+    }
+}
@@ -0,0 +1,83 @@
+package com.campus.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * CommunityLikeCounter 의 add / flush 경쟁 회귀 테스트
+ *
+ * flush 가 0 이 된 LongAdder 를 맵에서 빼는 동안 add 가 같은 글에 더해도 증감분이 사라지면 안 된다.
+ */
+class CommunityLikeCounterTest {
+
+    private static final int WRITERS = 4;
+    private static final int ADDS_PER_WRITER = 50_000;
+    private static final long POSTS = 8;
+
+    @Test
+    void concurrentAddAndFlushLoseNoDelta() throws Exception {
+        // postId -> DB 에 반영된 좋아요 수
+        ConcurrentHashMap<Long, AtomicLong> db = new ConcurrentHashMap<>();
+        CommunityPostRepository repo = mock(CommunityPostRepository.class);
+        when(repo.addLikeCount(anyLong(), anyInt())).thenAnswer(inv -> {
+            db.computeIfAbsent(inv.getArgument(0), id -> new AtomicLong()).addAndGet((int) inv.getArgument(1));
+            return 1;
+        });
+        CommunityLikeCounter counter = new CommunityLikeCounter(
+                repo, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < ADDS_PER_WRITER; i++) {
+                    counter.add(i % POSTS, 1);
+                }
+            });
+            t.start();
+            writers.add(t);
+        }
+
+        AtomicBoolean done = new AtomicBoolean(false);
+        Thread flusher = new Thread(() -> {
+            while (!done.get()) {
+                counter.flush();
+            }
+        });
+        flusher.start();
+        start.countDown();
+        for (Thread t : writers) {
+            t.join();
+        }
+        done.set(true);
+        flusher.join();
+        counter.flush();
+
+        long total = db.values().stream().mapToLong(AtomicLong::get).sum();
+        assertEquals((long) WRITERS * ADDS_PER_WRITER, total);
+        for (long postId = 0; postId < POSTS; postId++) {
+            assertEquals(WRITERS * ADDS_PER_WRITER / POSTS, db.get(postId).get());
+            assertEquals(0, counter.pending(postId));
+        }
+    }
+}
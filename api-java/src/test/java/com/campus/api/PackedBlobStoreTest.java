@@ -0,0 +1,162 @@
+package com.campus.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PackedBlobStore 의 index.log 복구 / 압축 회귀 테스트
+ *
+ * 세그먼트를 4KB 로 작게 잡아서 1000 바이트 blob 4개면 세그먼트 하나가 찬다.
+ */
+class PackedBlobStoreTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+    private static final int BLOB_BYTES = 1000;
+
+    @TempDir
+    Path root;
+
+    private PackedBlobStore store;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void replayDropsTruncatedLastRecord() throws IOException {
+        store = open();
+        put("aaaa.jpg", blob(1));
+        long firstRecordEnd = Files.size(indexLog());
+        put("bbbb.jpg", blob(2));
+        store.close();
+
+        // 두 번째 레코드를 쓰다가 죽은 상황
+        try (FileChannel ch = FileChannel.open(indexLog(), StandardOpenOption.WRITE)) {
+            ch.truncate(Files.size(indexLog()) - 3);
+        }
+
+        store = open();
+        assertArrayEquals(blob(1), read("aaaa.jpg"));
+        assertFalse(store.exists("bbbb.jpg"));
+        assertEquals(firstRecordEnd, Files.size(indexLog()));
+
+        // 잘라낸 뒤에 이어 쓴 레코드도 다시 열었을 때 읽혀야 함
+        put("cccc.jpg", blob(3));
+        store.close();
+        store = open();
+        assertArrayEquals(blob(1), read("aaaa.jpg"));
+        assertArrayEquals(blob(3), read("cccc.jpg"));
+        assertFalse(store.exists("bbbb.jpg"));
+    }
+
+    @Test
+    void compactAfterReopenDropsSegmentMissingFromRewrittenIndex() throws IOException {
+        store = open();
+        for (int i = 0; i < 4; i++) {
+            put("old" + i + ".jpg", blob(i));
+        }
+        put("live.jpg", blob(9)); // 세그먼트 1 이 꽉 차서 세그먼트 2 로
+        // index.log 를 다시 쓸 만큼 레코드 늘리기 (세그먼트 2 에 1바이트씩 쓰고 지움)
+        for (int i = 0; i < 600; i++) {
+            BlobStore.Upload u = store.newUpload();
+            u.out().write(1);
+            u.commit("tmp.jpg");
+            store.delete("tmp.jpg");
+        }
+
+        // compact 의 세그먼트 검사가 끝난 뒤 세그먼트 1 의 blob 이 모두 지워지고 index.log 를 다시 쓴 상황
+        for (int i = 0; i < 4; i++) {
+            store.delete("old" + i + ".jpg");
+        }
+        store.rewriteIndexIfBloated();
+        store.close();
+        assertTrue(Files.exists(segment(1)));
+
+        // 다시 쓴 index.log 에는 세그먼트 1 의 PUT 이 없으므로 writePos 0 으로 열림
+        store = open();
+        store.compact();
+        assertFalse(Files.exists(segment(1)));
+        assertArrayEquals(blob(9), read("live.jpg"));
+    }
+
+    @Test
+    void compactMovesLiveEntriesOutOfMostlyDeadSegment() throws IOException {
+        store = open();
+        for (int i = 0; i < 4; i++) {
+            put("seg1-" + i + ".jpg", blob(i));
+        }
+        put("seg2.jpg", blob(8));
+        for (int i = 0; i < 3; i++) {
+            store.delete("seg1-" + i + ".jpg");
+        }
+
+        store.compact();
+        assertFalse(Files.exists(segment(1)));
+        assertArrayEquals(blob(3), read("seg1-3.jpg"));
+        assertArrayEquals(blob(8), read("seg2.jpg"));
+
+        // 옮긴 위치가 index.log 에도 남아서 다시 열어도 읽혀야 함
+        store.close();
+        store = open();
+        assertFalse(Files.exists(segment(1)));
+        assertArrayEquals(blob(3), read("seg1-3.jpg"));
+        assertArrayEquals(blob(8), read("seg2.jpg"));
+        for (int i = 0; i < 3; i++) {
+            assertNull(store.get("seg1-" + i + ".jpg"));
+        }
+    }
+
+    // ===== 도우미 =====
+
+    private PackedBlobStore open() throws IOException {
+        return new PackedBlobStore(new ShardedFileBlobStore(root.toString()), 262144, SEGMENT_BYTES, 0.5);
+    }
+
+    private void put(String key, byte[] data) throws IOException {
+        try (BlobStore.Upload u = store.newUpload()) {
+            u.out().write(data);
+            u.commit(key);
+        }
+    }
+
+    private byte[] read(String key) throws IOException {
+        BlobStore.Blob b = store.get(key);
+        assertTrue(b != null, key + " missing");
+        try (InputStream in = b.openStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private Path indexLog() {
+        return root.resolve("packs").resolve("index.log");
+    }
+
+    private Path segment(int id) {
+        return root.resolve("packs").resolve(String.format("seg-%06d.dat", id));
+    }
+
+    private static byte[] blob(int seed) {
+        byte[] data = new byte[BLOB_BYTES];
+        Arrays.fill(data, (byte) seed);
+        data[0] = (byte) (seed * 31 + 7);
+        return data;
+    }
+}
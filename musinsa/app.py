@@ -4,7 +4,7 @@ import numpy as np
 import torch
 from flask import Flask, request, jsonify
 from sentence_transformers import SentenceTransformer
-from PIL import Image
+from PIL import Image, UnidentifiedImageError
 import os
 import requests
 
@@ -96,6 +96,30 @@ def search():
         return jsonify({'error': str(e)}), 500
 
 
+# 요청한 이미지 URL 쪽 문제 (없는 파일, 잘못된 URL, 이미지가 아님) → 4xx 로 응답.
+# 5xx 는 이 서버 장애로 보고 스프링 쪽 회로 차단기가 세므로 구분해야 함
+BAD_IMAGE_ERRORS = (
+    requests.HTTPError,
+    requests.exceptions.InvalidURL,
+    requests.exceptions.MissingSchema,
+    requests.exceptions.InvalidSchema,
+    UnidentifiedImageError,
+)
+
+
+# --- 이미지 URL 로드 공통 함수 ---
+def load_image_from_url(image_url):
+    # 🔥 도커 네트워크 안에서 localhost:8080 은 안 보이니까 api-java 로 바꿔줌
+    if image_url.startswith("http://localhost:8080"):
+        image_url = image_url.replace("http://localhost:8080", "http://api-java:8080")
+    if image_url.startswith("https://localhost:8080"):
+        image_url = image_url.replace("https://localhost:8080", "http://api-java:8080")
+
+    resp = requests.get(image_url, stream=True, timeout=10)
+    resp.raise_for_status()
+    return Image.open(resp.raw).convert("RGB")
+
+
 # --- 4. 스프링에서 JSON 요청용 추천 ---
 @app.route('/recommend', methods=['POST'])
 def recommend():
@@ -109,17 +133,9 @@ def recommend():
     if not image_url:
         return jsonify({'error': 'imageUrl is required'}), 400
 
-    # 🔥 도커 네트워크 안에서 localhost:8080 은 안 보이니까 api-java 로 바꿔줌
-    if image_url.startswith("http://localhost:8080"):
-        image_url = image_url.replace("http://localhost:8080", "http://api-java:8080")
-    if image_url.startswith("https://localhost:8080"):
-        image_url = image_url.replace("https://localhost:8080", "http://api-java:8080")
-
     try:
         # 1) 이미지 URL에서 로드
-        resp = requests.get(image_url, stream=True, timeout=10)
-        resp.raise_for_status()
-        image = Image.open(resp.raw).convert("RGB")
+        image = load_image_from_url(image_url)
 
         # 2) 검색
         distances, indices = search_core(image, top_n)
@@ -134,11 +150,38 @@ def recommend():
 
         return jsonify({'similarIds': similar_ids})
 
+    except BAD_IMAGE_ERRORS as e:
+        print(f"Bad image: {e}")
+        return jsonify({'error': str(e)}), 422
+
     except Exception as e:
         print(f"Search Error: {e}")
         return jsonify({'error': str(e)}), 500
 
 
+# --- 5. 이미지 임베딩 (스프링 쪽 벡터 인덱스용) ---
+@app.route('/embed', methods=['POST'])
+def embed():
+    data = request.get_json(silent=True) or {}
+    image_url = data.get('imageUrl')
+
+    if not image_url:
+        return jsonify({'error': 'imageUrl is required'}), 400
+
+    try:
+        image = load_image_from_url(image_url)
+        vector = model.encode([image], convert_to_numpy=True, normalize_embeddings=True)[0]
+        vector = vector.astype(np.float32)
+        return jsonify({'vector': vector.tolist(), 'dimensions': int(vector.shape[0])})
+
+    except BAD_IMAGE_ERRORS as e:
+        print(f"Bad image: {e}")
+        return jsonify({'error': str(e)}), 422
+
+    except Exception as e:
+        print(f"Embed Error: {e}")
+        return jsonify({'error': str(e)}), 500
+
 
 if __name__ == '__main__':
     app.run(host='0.0.0.0', port=8000)